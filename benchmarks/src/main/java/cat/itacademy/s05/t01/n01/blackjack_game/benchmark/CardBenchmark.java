@@ -0,0 +1,72 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.benchmark;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shoe building, hand scoring and dealing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardBenchmark {
+
+    private final CardList blackjack = CardList.of("AS", "KD");
+    private final CardList fiveCardHand = CardList.of("2C", "3D", "AH", "4S", "AC");
+
+    @State(Scope.Thread)
+    public static class ShoeState {
+
+        @Param({"1", "6"})
+        private int decks;
+
+        private Engine engine;
+        private Game game;
+
+        @Setup
+        public void setUp() {
+            engine = new Engine();
+            engine.properties.getShoe().setDecks(decks);
+            game = engine.newGame(1);
+        }
+    }
+
+    @Benchmark
+    public CardList createShuffledDeck(ShoeState shoe) {
+        return CardUtils.createShuffledDeck(shoe.decks);
+    }
+
+    @Benchmark
+    public int calculateHandValueTwoCards() {
+        return CardUtils.calculateHandValue(blackjack);
+    }
+
+    @Benchmark
+    public int calculateHandValueFiveCards() {
+        return CardUtils.calculateHandValue(fiveCardHand);
+    }
+
+    // Includes the reshuffle whenever the cut card comes out, as in a real shoe
+    @Benchmark
+    public Card dealCard(ShoeState shoe) {
+        return shoe.engine.interactor.dealCard(shoe.game).block();
+    }
+}
@@ -0,0 +1,65 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against a recorded baseline and exits with status 1 when a
+ * benchmark got slower by more than the allowed percentage (default 10):
+ * <pre>
+ * java -cp target/benchmarks.jar cat.itacademy.s05.t01.n01.blackjack_game.benchmark.CompareResults \
+ *     results/baseline.json target/results.json 10
+ * </pre>
+ * Every benchmark here reports time per operation, so a higher score is a regression.
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <results.json> [max-regression-percent]");
+            System.exit(2);
+        }
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        boolean regressed = false;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            double score = entry.getValue().get("score").asDouble();
+            String unit = entry.getValue().get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %12.3f %-6s (new)%n", entry.getKey(), score, unit);
+                continue;
+            }
+            double change = (score - before.get("score").asDouble()) / before.get("score").asDouble() * 100;
+            boolean slower = change > maxRegression;
+            regressed |= slower;
+            System.out.printf("%-70s %12.3f %-6s %+7.1f%%%s%n", entry.getKey(), score, unit, change, slower ? "  REGRESSION" : "");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // Benchmark name plus its parameters, mapped to the primary metric
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText()
+                    .replace("cat.itacademy.s05.t01.n01.blackjack_game.benchmark.", ""));
+            JsonNode params = run.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param -> key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+            scores.put(key.toString(), run.get("primaryMetric"));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,66 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.benchmark;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameActionInteractor;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameEventBroker;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameHistory;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.Leaderboard;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.SettlementWriter;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.ShoeCounter;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.Shuffler;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The game pipeline wired by hand, as Spring would, on top of the in-memory repositories.
+ */
+final class Engine {
+
+    final BlackjackProperties properties = new BlackjackProperties();
+    final Map<String, Game> stored = InMemoryRepositories.newStore();
+    final GameStore gameStore;
+    final SettlementWriter settlementWriter;
+    final GameActionInteractor interactor;
+
+    Engine() {
+        PlayerRepository playerRepository = InMemoryRepositories.players();
+        gameStore = new GameStore(InMemoryRepositories.games(stored), properties);
+        settlementWriter = new SettlementWriter(playerRepository, new Leaderboard(playerRepository), properties);
+        // The history is written to Mongo, which the engine is measured without
+        properties.getHistory().setEnabled(false);
+        interactor = new GameActionInteractor(gameStore, settlementWriter, new GameEventBroker(properties),
+                new GameHistory(null, properties), Shuffler.fast(), new ShoeCounter(), ObservationRegistry.NOOP, properties);
+    }
+
+    Game newGame(int players) {
+        Game game = new Game();
+        game.setId(UUID.randomUUID().toString());
+        game.setGameState(GameState.ONGOING);
+        List<PlayerState> playerStates = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            PlayerState playerState = new PlayerState(String.valueOf(i + 1));
+            playerState.setHand(new CardList());
+            playerStates.add(playerState);
+        }
+        game.setPlayersState(playerStates);
+        game.setDealerHand(new CardList());
+        interactor.initializeGame(game);
+        return game;
+    }
+
+    // Drops what the previous iteration stored, so memory does not grow with the number of rounds
+    void reset() {
+        stored.clear();
+        settlementWriter.flush().block();
+    }
+}
@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.benchmark;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositories backed by a map, so the engine can be measured without a database round-trip.
+ * Only the calls the game pipeline makes are implemented.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static GameRepository games(Map<String, Game> stored) {
+        return proxy(GameRepository.class, (name, args) -> switch (name) {
+            case "findById" -> Mono.justOrEmpty(stored.get((String) args[0]));
+            case "save", "saveSnapshot" -> Mono.just(store(stored, (Game) args[0], false));
+            case "saveMove", "saveRoundEnd", "saveTable" -> Mono.just(store(stored, (Game) args[0], true));
+            case "insertAll" -> {
+                @SuppressWarnings("unchecked")
+                Collection<Game> games = (Collection<Game>) args[0];
+                games.forEach(game -> store(stored, game, false));
+                yield Flux.fromIterable(games);
+            }
+            case "delete" -> Mono.fromRunnable(() -> stored.remove(((Game) args[0]).getId()));
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    // Settled scores are acknowledged and dropped
+    static PlayerRepository players() {
+        return proxy(PlayerRepository.class, (name, args) -> switch (name) {
+            case "applyScoreDeltas" -> Mono.just((long) ((List<?>) args[0]).size());
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private static Game store(Map<String, Game> stored, Game game, boolean bumpVersion) {
+        if (bumpVersion || game.getVersion() == null) {
+            game.setVersion(game.getVersion() == null ? 0 : game.getVersion() + 1);
+        }
+        game.getDeck().clearPendingDeals();
+        game.clearShoeReplaced();
+        stored.put(game.getId(), game);
+        return game;
+    }
+
+    private interface Call {
+        Object invoke(String name, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Call call) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                default:
+                    return call.invoke(method.getName(), args);
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    static Map<String, Game> newStore() {
+        return new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,99 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.benchmark;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dealer play and whole rounds through the interactor and the game cache, on in-memory
+ * repositories: every move reads the game from the store, plays it and saves it, as a request does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundBenchmark {
+
+    private Engine engine;
+    private Game dealerTurn;
+
+    @Setup
+    public void setUp() {
+        engine = new Engine();
+
+        // The player stands on 18 and the dealer, showing 6, has to draw to 17 or more
+        dealerTurn = new Game();
+        dealerTurn.setId("dealer-turn");
+        dealerTurn.setGameState(GameState.ONGOING);
+        dealerTurn.setDeck(new Shoe(CardList.of("2C", "3D", "2H", "4S", "KD", "9C")));
+        dealerTurn.setDealerHand(CardList.of("6H"));
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("10S", "8D"));
+        playerState.setAction(PlayerAction.STANDING);
+        dealerTurn.setPlayersState(new ArrayList<>(List.of(playerState)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        engine.reset();
+    }
+
+    @Benchmark
+    public Game finishGameDealerPlay() {
+        return engine.interactor.finishGame(dealerTurn.copy()).block();
+    }
+
+    // Shuffle, opening deal, then every player hits below 17 and stands, until the dealer has played
+    @State(Scope.Thread)
+    public static class Table {
+
+        @Param({"1", "5"})
+        private int players;
+    }
+
+    @Benchmark
+    public Game fullRound(Table table) {
+        int players = table.players;
+        Game game = engine.newGame(players);
+        engine.interactor.dealOpeningHands(game);
+        String gameId = engine.gameStore.save(game).block().getId();
+
+        for (int seat = 0; seat < players; seat++) {
+            String playerId = String.valueOf(seat + 1);
+            while (true) {
+                game = engine.gameStore.findById(gameId).block();
+                PlayerState playerState = game.getPlayersState().get(seat);
+                if (game.getGameState() != GameState.ONGOING || playerState.getAction() != PlayerAction.PLAYING) {
+                    break;
+                }
+                game = playerState.getScore() < 17
+                        ? engine.interactor.hit(game, playerId).block()
+                        : engine.interactor.stand(game, playerId).block();
+            }
+        }
+        engine.gameStore.delete(game).block();
+        return game;
+    }
+}
@@ -8,5 +8,7 @@ CREATE TABLE IF NOT EXISTS players (
     name VARCHAR(255) NOT NULL,
     score INT DEFAULT 0,
     total_wins INT DEFAULT 0,
-    total_losses INT DEFAULT 0
+    total_losses INT DEFAULT 0,
+    -- Ranking pages and rank-of-player counts walk this index instead of sorting the table
+    INDEX idx_players_score (score DESC, id)
 );
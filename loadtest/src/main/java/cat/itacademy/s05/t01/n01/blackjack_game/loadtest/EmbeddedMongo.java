@@ -0,0 +1,34 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * A mongod started on a free local port for the length of a run. The first start downloads the
+ * MongoDB distribution into ~/.embedmongo.
+ */
+public final class EmbeddedMongo implements AutoCloseable {
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> running;
+
+    private EmbeddedMongo(TransitionWalker.ReachedState<RunningMongodProcess> running) {
+        this.running = running;
+    }
+
+    public static EmbeddedMongo start() {
+        return new EmbeddedMongo(Mongod.instance().start(Version.Main.V7_0));
+    }
+
+    public String uri(String database) {
+        ServerAddress address = running.current().getServerAddress();
+        return "mongodb://" + address.getHost() + ":" + address.getPort() + "/" + database;
+    }
+
+    @Override
+    public void close() {
+        running.close();
+    }
+}
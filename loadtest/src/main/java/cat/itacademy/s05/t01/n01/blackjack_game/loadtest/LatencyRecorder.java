@@ -0,0 +1,88 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps every measured latency per operation and reports exact percentiles at the end of a run.
+ */
+public class LatencyRecorder {
+
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+    public LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            samples.put(operation, new Samples());
+        }
+    }
+
+    public void record(Operation operation, long nanos, boolean succeeded) {
+        samples.get(operation).add(nanos, succeeded);
+    }
+
+    public long count(Operation operation) {
+        return samples.get(operation).count();
+    }
+
+    public long errors(Operation operation) {
+        return samples.get(operation).errors();
+    }
+
+    // Nearest-rank percentile in milliseconds, 0 when nothing was measured
+    public double percentileMillis(Operation operation, double percentile) {
+        long[] sorted = samples.get(operation).sorted();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+
+    public void report(PrintStream out, double seconds) {
+        out.printf("%-42s %9s %7s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "max ms");
+        long total = 0;
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            long count = count(operation);
+            total += count;
+            totalErrors += errors(operation);
+            out.printf("%-42s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", operation.getEndpoint(), count, errors(operation),
+                    count / seconds, percentileMillis(operation, 50), percentileMillis(operation, 99),
+                    percentileMillis(operation, 100));
+        }
+        out.printf("%-42s %9d %7d %9.1f%n", "Total", total, totalErrors, total / seconds);
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long latency, boolean succeeded) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latency;
+            if (!succeeded) {
+                errors++;
+            }
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackGameApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Arrays;
+
+/**
+ * Boots the application against embedded databases, drives a mix of game and ranking traffic
+ * through its HTTP API and prints the latency percentiles and throughput of each endpoint:
+ * <pre>
+ * java -jar target/loadtest.jar --loadtest.concurrency=64 --loadtest.duration=60s
+ * </pre>
+ * Every other argument reaches the application, e.g. {@code --blackjack.cache.write-mode=write-behind}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        LoadTestProperties properties = Binder.get(environment).bindOrCreate("loadtest", LoadTestProperties.class);
+
+        if (properties.getBaseUrl() != null) {
+            run(properties.getBaseUrl(), properties);
+            return;
+        }
+
+        EmbeddedMongo mongo = properties.getMongoUri() == null ? EmbeddedMongo.start() : null;
+        String mongoUri = mongo != null ? mongo.uri("blackjackdb") : properties.getMongoUri();
+        // Command-line arguments override the application's own application.properties
+        String[] applicationArgs = Arrays.copyOf(args, args.length + 1);
+        applicationArgs[args.length] = "--spring.data.mongodb.uri=" + mongoUri;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BlackjackGameApplication.class)
+                .profiles("loadtest")
+                .run(applicationArgs)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            run("http://localhost:" + port, properties);
+        } finally {
+            if (mongo != null) {
+                mongo.close();
+            }
+        }
+    }
+
+    private static void run(String baseUrl, LoadTestProperties properties) {
+        System.out.printf("Driving %s with %d players for %ds after a %ds warm-up, mix %s%n", baseUrl,
+                properties.getConcurrency(), properties.getDuration().toSeconds(), properties.getWarmup().toSeconds(),
+                properties.getMix());
+        LatencyRecorder recorder = new TrafficDriver(baseUrl, properties).run();
+        recorder.report(System.out, properties.getDuration().toNanos() / 1e9);
+    }
+}
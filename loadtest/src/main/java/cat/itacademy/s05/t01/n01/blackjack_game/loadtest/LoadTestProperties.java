@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, bound from the {@code loadtest.*} arguments.
+ */
+public class LoadTestProperties {
+
+    // Virtual players, each with one request in flight at a time
+    private int concurrency = 32;
+    // Requests sent before this are not measured
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    // Relative weight of each operation; hits and stands need a game in play, so a player
+    // without one creates a game instead
+    private Map<Operation, Integer> mix = defaultMix();
+    // Drives an already running application instead of booting one against embedded databases
+    private String baseUrl;
+    // Uses this MongoDB instead of starting an embedded one
+    private String mongoUri;
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.CREATE, 1);
+        mix.put(Operation.HIT, 4);
+        mix.put(Operation.STAND, 2);
+        mix.put(Operation.RANKING, 2);
+        return mix;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(Map<Operation, Integer> mix) {
+        this.mix = mix;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getMongoUri() {
+        return mongoUri;
+    }
+
+    public void setMongoUri(String mongoUri) {
+        this.mongoUri = mongoUri;
+    }
+}
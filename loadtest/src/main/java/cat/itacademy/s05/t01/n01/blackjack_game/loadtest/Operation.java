@@ -0,0 +1,21 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+/**
+ * The requests a virtual player sends, reported separately.
+ */
+public enum Operation {
+    CREATE("POST /game/new"),
+    HIT("POST /game/{id}/play/{playerId} HIT"),
+    STAND("POST /game/{id}/play/{playerId} STANDING"),
+    RANKING("GET /player/ranking");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,187 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays the application with a fixed number of virtual players for the configured time.
+ * <p>
+ * Each virtual player sends one request at a time, picking its next operation at random by the
+ * weights of the mix. Hits and stands go to the single-player game it is playing; a player
+ * without a game in play creates one instead. A finished game or a failed request leaves the
+ * player without a game.
+ */
+public class TrafficDriver {
+
+    private final LoadTestProperties properties;
+    private final ConnectionProvider connections;
+    private final WebClient client;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private long measureFrom;
+    private long deadline;
+
+    public TrafficDriver(String baseUrl, LoadTestProperties properties) {
+        this.properties = properties;
+        // One connection per virtual player, so requests never queue for a connection
+        connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(properties.getConcurrency())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        Map<Operation, Integer> mix = properties.getMix();
+        operations = mix.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += Math.max(mix.get(operations[i]), 0);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The traffic mix needs at least one operation with a positive weight");
+        }
+    }
+
+    public LatencyRecorder run() {
+        long start = System.nanoTime();
+        measureFrom = start + properties.getWarmup().toNanos();
+        deadline = measureFrom + properties.getDuration().toNanos();
+
+        Flux.range(0, properties.getConcurrency())
+                .flatMap(id -> {
+                    VirtualPlayer player = new VirtualPlayer(id);
+                    return Mono.defer(() -> step(player)).repeat(() -> System.nanoTime() < deadline);
+                }, properties.getConcurrency())
+                .blockLast();
+        connections.dispose();
+        return recorder;
+    }
+
+    private Mono<Void> step(VirtualPlayer player) {
+        Operation operation = nextOperation();
+        if ((operation == Operation.HIT || operation == Operation.STAND) && player.gameId == null) {
+            operation = Operation.CREATE;
+        }
+        Mono<Void> request = switch (operation) {
+            case CREATE -> timed(Operation.CREATE, createGame(player))
+                    .doOnNext(player::joined)
+                    .then();
+            case HIT -> timed(Operation.HIT, move(player, "HIT"))
+                    .doOnNext(player::moved)
+                    .then();
+            case STAND -> timed(Operation.STAND, move(player, "STANDING"))
+                    .doOnNext(player::moved)
+                    .then();
+            case RANKING -> timed(Operation.RANKING, ranking()).then();
+        };
+        return request.onErrorResume(error -> {
+            player.left();
+            return Mono.empty();
+        });
+    }
+
+    private Mono<JsonNode> createGame(VirtualPlayer player) {
+        return client.post()
+                .uri("/game/new")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("loadtest-" + player.id + "-" + player.games++)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private Mono<JsonNode> move(VirtualPlayer player, String action) {
+        return client.post()
+                .uri("/game/{id}/play/{playerId}", player.gameId, player.playerId)
+                .bodyValue(Map.of("playerAction", action, "amountBet", 0))
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private Mono<Long> ranking() {
+        return client.get()
+                .uri("/player/ranking?page=0&size=20")
+                .retrieve()
+                .bodyToFlux(JsonNode.class)
+                .count();
+    }
+
+    // Only requests started after the warm-up are measured
+    private <T> Mono<T> timed(Operation operation, Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            boolean measured = start >= measureFrom && start < deadline;
+            return request
+                    .doOnSuccess(response -> {
+                        if (measured) {
+                            recorder.record(operation, System.nanoTime() - start, true);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (measured) {
+                            recorder.record(operation, System.nanoTime() - start, false);
+                        }
+                    });
+        });
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static final class VirtualPlayer {
+
+        private final int id;
+        private int games;
+        private String gameId;
+        private String playerId;
+
+        private VirtualPlayer(int id) {
+            this.id = id;
+        }
+
+        void joined(JsonNode game) {
+            if (isOngoing(game)) {
+                gameId = game.get("id").asText();
+                playerId = game.get("playersState").get(0).get("playerId").asText();
+            } else {
+                left();
+            }
+        }
+
+        void moved(JsonNode result) {
+            if (!isOngoing(result)) {
+                left();
+            }
+        }
+
+        void left() {
+            gameId = null;
+            playerId = null;
+        }
+
+        private static boolean isOngoing(JsonNode game) {
+            return "ONGOING".equals(game.path("gameState").asText());
+        }
+    }
+}
@@ -2,9 +2,11 @@ package cat.itacademy.s05.t01.n01.blackjack_game;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
 
 @SpringBootApplication
+@EnableConfigurationProperties(BlackjackProperties.class)
 @ComponentScan(basePackages = {"cat.itacademy.s05.t01.n01.blackjack_game", "package.where.swaggerconfig.is.located"})
 
 public class BlackjackGameApplication {
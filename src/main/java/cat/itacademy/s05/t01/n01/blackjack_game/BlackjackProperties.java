@@ -0,0 +1,495 @@
+package cat.itacademy.s05.t01.n01.blackjack_game;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.time.Duration;
+
+// Validates itself when bound, so a bad value stops the application from starting instead of
+// misdealing every shoe
+@ConfigurationProperties(prefix = "blackjack")
+public class BlackjackProperties implements Validator {
+
+    private final Shoe shoe = new Shoe();
+    private final Concurrency concurrency = new Concurrency();
+    private final Cache cache = new Cache();
+    private final Executor executor = new Executor();
+    private final Settlement settlement = new Settlement();
+    private final Bulk bulk = new Bulk();
+    private final Events events = new Events();
+    private final Simulation simulation = new Simulation();
+    private final History history = new History();
+    private final Replay replay = new Replay();
+    private final Archive archive = new Archive();
+    private final Listing listing = new Listing();
+
+    public Shoe getShoe() {
+        return shoe;
+    }
+
+    public Concurrency getConcurrency() {
+        return concurrency;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Settlement getSettlement() {
+        return settlement;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return BlackjackProperties.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BlackjackProperties properties = (BlackjackProperties) target;
+        Shoe shoe = properties.getShoe();
+        if (shoe.getDecks() < 1) {
+            errors.rejectValue("shoe.decks", "min", "The shoe needs at least one deck");
+        }
+        if (!(shoe.getPenetration() > 0 && shoe.getPenetration() <= 1)) {
+            errors.rejectValue("shoe.penetration", "range", "Penetration must be above 0 and at most 1");
+        }
+        if (properties.getSimulation().getMaxRuns() < 1) {
+            errors.rejectValue("simulation.maxRuns", "min", "At least one simulation must be able to run");
+        }
+    }
+
+    public static class Shoe {
+        public enum ShufflerMode {
+            // A per-thread generator: cheapest, for load tests and benchmarks
+            FAST,
+            // The same shoes on every run, starting from blackjack.shoe.seed
+            SEEDED,
+            // Seeds from SecureRandom, so the next shoe cannot be predicted from the previous ones
+            SECURE
+        }
+
+        private int decks = 6;
+        // Fraction of the shoe dealt before the cut card comes out and the shoe is reshuffled, in (0, 1]
+        private double penetration = 0.75;
+        private ShufflerMode shuffler = ShufflerMode.SECURE;
+        private Long seed;
+
+        public int getDecks() {
+            return decks;
+        }
+
+        public void setDecks(int decks) {
+            this.decks = decks;
+        }
+
+        public double getPenetration() {
+            return penetration;
+        }
+
+        public void setPenetration(double penetration) {
+            this.penetration = penetration;
+        }
+
+        public ShufflerMode getShuffler() {
+            return shuffler;
+        }
+
+        public void setShuffler(ShufflerMode shuffler) {
+            this.shuffler = shuffler;
+        }
+
+        public Long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(Long seed) {
+            this.seed = seed;
+        }
+
+        public int cutCardPosition(int shoeSize) {
+            return (int) Math.round(shoeSize * penetration);
+        }
+    }
+
+    public static class Concurrency {
+        // Retries after a version conflict, each one reloading the game before replaying the move
+        private int maxRetries = 3;
+        private Duration minBackoff = Duration.ofMillis(5);
+        private Duration maxBackoff = Duration.ofMillis(100);
+        private double jitter = 0.5;
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getMinBackoff() {
+            return minBackoff;
+        }
+
+        public void setMinBackoff(Duration minBackoff) {
+            this.minBackoff = minBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    public static class Cache {
+        public enum WriteMode {
+            WRITE_THROUGH,
+            // Moves only update the cache; dirty games are written to Mongo in batches
+            WRITE_BEHIND
+        }
+
+        private WriteMode writeMode = WriteMode.WRITE_THROUGH;
+        private long maximumSize = 10_000;
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+        private Duration flushInterval = Duration.ofMillis(500);
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        public WriteMode getWriteMode() {
+            return writeMode;
+        }
+
+        public void setWriteMode(WriteMode writeMode) {
+            this.writeMode = writeMode;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    public static class Executor {
+        // Single-threaded lanes that games are hashed onto; 0 means one per available processor
+        private int lanes = 0;
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+    }
+
+    public static class Settlement {
+        // Stake every hand starts with; doubling down adds up to the same amount again
+        private int baseBet = 10;
+        // Players per UPDATE statement, and the number of pending players that triggers an early flush
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofMillis(200);
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        public int getBaseBet() {
+            return baseBet;
+        }
+
+        public void setBaseBet(int baseBet) {
+            this.baseBet = baseBet;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    public static class Bulk {
+        // Tables accepted by one bulk creation request
+        private int maxTables = 10_000;
+        // Moves accepted by one batched move request
+        private int maxMoves = 10_000;
+        // Games per Mongo insert and players per R2DBC insert batch
+        private int batchSize = 1_000;
+
+        public int getMaxTables() {
+            return maxTables;
+        }
+
+        public void setMaxTables(int maxTables) {
+            this.maxTables = maxTables;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxMoves() {
+            return maxMoves;
+        }
+
+        public void setMaxMoves(int maxMoves) {
+            this.maxMoves = maxMoves;
+        }
+    }
+
+    public static class Events {
+        // Events held for each subscriber of a game stream; the oldest are dropped when it falls behind
+        private int bufferSize = 256;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    public static class Simulation {
+        // Hands accepted by one simulation request
+        private long maxHands = 100_000_000;
+        // Threads playing simulated hands (0 = one per processor)
+        private int parallelism = 0;
+        // Simulations running at once; further requests are refused until one ends
+        private int maxRuns = 2;
+
+        public long getMaxHands() {
+            return maxHands;
+        }
+
+        public void setMaxHands(long maxHands) {
+            this.maxHands = maxHands;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxRuns() {
+            return maxRuns;
+        }
+
+        public void setMaxRuns(int maxRuns) {
+            this.maxRuns = maxRuns;
+        }
+    }
+
+    public static class History {
+        // Appends every saved move to the game's history
+        private boolean enabled = true;
+        // Versions between two snapshots of a game; finished games are always snapshotted
+        private int snapshotInterval = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Replay {
+        // Threads replaying games in bulk (0 = one per processor)
+        private int parallelism = 0;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Archive {
+        // Moves finished games out of the games collection in the background
+        private boolean enabled = true;
+        private Duration interval = Duration.ofMinutes(5);
+        // How long a finished game stays in the games collection before it is archived
+        private Duration finishedFor = Duration.ofHours(1);
+        // Games moved per bulk write
+        private int batchSize = 500;
+        // How long archived games are kept before Mongo expires them (0 = forever)
+        private Duration retention = Duration.ofDays(365);
+        // Directory every run also writes the games it archived to, gzipped (empty = no files)
+        private String exportDir = "";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getFinishedFor() {
+            return finishedFor;
+        }
+
+        public void setFinishedFor(Duration finishedFor) {
+            this.finishedFor = finishedFor;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public String getExportDir() {
+            return exportDir;
+        }
+
+        public void setExportDir(String exportDir) {
+            this.exportDir = exportDir;
+        }
+    }
+
+    public static class Listing {
+        // Games returned when a listing does not ask for a limit
+        private int defaultLimit = 100;
+        // Games one page of a listing can ask for
+        private int maxLimit = 1_000;
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package cat.itacademy.s05.t01.n01.blackjack_game;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.service.Shuffler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ShufflerConfig {
+
+    @Bean
+    public Shuffler shuffler(BlackjackProperties properties) {
+        BlackjackProperties.Shoe shoe = properties.getShoe();
+        return switch (shoe.getShuffler()) {
+            case FAST -> Shuffler.fast();
+            case SEEDED -> {
+                if (shoe.getSeed() == null) {
+                    throw new IllegalStateException("blackjack.shoe.seed is required by the seeded shuffler");
+                }
+                yield Shuffler.seeded(shoe.getSeed());
+            }
+            case SECURE -> Shuffler.secure();
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package cat.itacademy.s05.t01.n01.blackjack_game;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.controller.GameEventWebSocketHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class WebSocketConfig {
+
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(GameEventWebSocketHandler gameEventWebSocketHandler) {
+        // Checked before the annotated controllers
+        return new SimpleUrlHandlerMapping(Map.of(GameEventWebSocketHandler.PATH, gameEventWebSocketHandler),
+                Ordered.HIGHEST_PRECEDENCE);
+    }
+}
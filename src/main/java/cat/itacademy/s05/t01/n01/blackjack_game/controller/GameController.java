@@ -1,11 +1,25 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.controller;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.model.BatchedMove;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CreatedGame;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSummary;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveOutcome;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveResult;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveView;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.TableRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplay;
 import cat.itacademy.s05.t01.n01.blackjack_game.service.GameService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.GameNotFoundException;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.InvalidMoveException;
@@ -32,27 +46,70 @@ public class GameController {
     @PostMapping("/new/multiplayer")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Game> startNewGame(@RequestBody List<String> playerIds) {
-        System.out.println("Received player IDs: " + playerIds);
         return gameService.startNewGame(playerIds);
     }
 
+    // Streams one line per created table, as soon as its batch is stored
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<CreatedGame> createGames(@RequestBody List<TableRequest> tables) {
+        return gameService.createGames(tables);
+    }
+
+    // Newest games first, one line each; the next page starts after the last line's cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GameSummary> getGames(@RequestParam(required = false) GameState state,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(required = false) Integer limit) {
+        return gameService.getGames(state, after, limit);
+    }
+
     @GetMapping("/{id}")
     public Mono<Game> getGameDetails(@PathVariable String id) {
         return gameService.getGameDetails(id)
                 .switchIfEmpty(Mono.error(new GameNotFoundException("Game not found with id: " + id)));
     }
 
+    // Pushes the game's changes as they are saved, so clients do not have to poll it
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GameEvent>> streamGameEvents(@PathVariable String id) {
+        return gameService.streamGameEvents(id)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name())
+                        .build());
+    }
+
+    // Every recorded step of a finished game, in the order it happened
+    @GetMapping("/{id}/history")
+    public Flux<GameHistoryEvent> getGameHistory(@PathVariable String id) {
+        return gameService.getGameHistory(id);
+    }
+
+    // A finished game dealt and played again, state by state, checked against its history
+    @GetMapping("/{id}/replay")
+    public Mono<GameReplay> getGameReplay(@PathVariable String id) {
+        return gameService.getGameReplay(id);
+    }
+
+    // Answers with only what the move changed, unless the whole game is asked for with view=FULL
     @PostMapping("/{id}/play/{playerId}")
-    public Mono<Game> makeMove(@PathVariable String id, @PathVariable String playerId, @RequestBody MoveRequest moveRequest) {
+    public Mono<?> makeMove(@PathVariable String id, @PathVariable String playerId, @RequestBody MoveRequest moveRequest,
+                            @RequestParam(defaultValue = "DELTA") MoveView view) {
         return gameService.makeMove(id, playerId, moveRequest.getMoveType(), moveRequest.getAmountBet())
+                .map(game -> view == MoveView.FULL ? game : MoveResult.of(game))
                 .onErrorMap(IllegalArgumentException.class, e -> new InvalidMoveException(e.getMessage()));
     }
 
+    // Moves are grouped per game and each game is loaded and saved once; one line per move is
+    // streamed back, with the move's index in the request
+    @PostMapping(value = "/moves", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MoveOutcome> makeMoves(@RequestBody List<BatchedMove> moves) {
+        return gameService.makeMoves(moves);
+    }
+
     @DeleteMapping("/{id}/delete")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteGame(@PathVariable String id) {
-        System.out.println("Delete request received for game ID: " + id);
-        return gameService.deleteGame(id)
-                .doOnSuccess(unused -> System.out.println("Successfully deleted game with ID: " + id));
+        return gameService.deleteGame(id);
     }
 }
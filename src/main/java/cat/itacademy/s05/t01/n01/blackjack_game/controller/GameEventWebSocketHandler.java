@@ -0,0 +1,52 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.controller;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.exception.GameNotFoundException;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriTemplate;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebSocket counterpart of {@code GET /game/{id}/events}: one JSON text message per game event.
+ */
+@Component
+public class GameEventWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/game/{id}/ws";
+
+    private static final UriTemplate PATH_TEMPLATE = new UriTemplate(PATH);
+
+    private final GameService gameService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public GameEventWebSocketHandler(GameService gameService, ObjectMapper objectMapper) {
+        this.gameService = gameService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        String gameId = PATH_TEMPLATE.match(session.getHandshakeInfo().getUri().getPath()).get("id");
+
+        return session.send(gameService.streamGameEvents(gameId)
+                        .map(event -> session.textMessage(toJson(event))))
+                .onErrorResume(GameNotFoundException.class,
+                        e -> session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage())));
+    }
+
+    private String toJson(GameEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Game event could not be serialized", e);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.controller;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSummary;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerRank;
 import cat.itacademy.s05.t01.n01.blackjack_game.service.GameService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -16,8 +20,28 @@ public class PlayerController {
     private GameService gameService;
 
     @GetMapping("/ranking")
-    public Flux<Player> getPlayerRankings() {
-        return gameService.getPlayerRankings();
+    public Flux<Player> getPlayerRankings(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        return gameService.getPlayerRankings(page, size);
+    }
+
+    @GetMapping("/ranking/top")
+    public Flux<Player> getTopPlayers(@RequestParam(defaultValue = "10") int count) {
+        return gameService.getTopPlayers(count);
+    }
+
+    @GetMapping("/{playerId}/rank")
+    public Mono<PlayerRank> getPlayerRank(@PathVariable String playerId) {
+        return gameService.getPlayerRank(playerId);
+    }
+
+    // The player's games, newest first, paged like GET /game
+    @GetMapping(value = "/{playerId}/games", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GameSummary> getPlayerGames(@PathVariable String playerId,
+                                            @RequestParam(required = false) GameState state,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit) {
+        return gameService.getPlayerGames(playerId, state, after, limit);
     }
 
     @PutMapping("/{playerId}")
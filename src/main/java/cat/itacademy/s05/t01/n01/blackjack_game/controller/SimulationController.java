@@ -0,0 +1,25 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.controller;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationResult;
+import cat.itacademy.s05.t01.n01.blackjack_game.simulation.SimulationRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/simulation")
+public class SimulationController {
+
+    private final SimulationRunner simulationRunner;
+
+    @Autowired
+    public SimulationController(SimulationRunner simulationRunner) {
+        this.simulationRunner = simulationRunner;
+    }
+
+    @PostMapping
+    public Mono<SimulationResult> simulate(@RequestBody SimulationRequest request) {
+        return simulationRunner.run(request);
+    }
+}
@@ -0,0 +1,148 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finished game moved out of the {@code games} collection. The shoe is dropped, and so is
+ * everything the hands can be scored from again: all hands are packed into one byte array, each
+ * hand as its card count followed by one byte per card, the seats in order and the dealer last.
+ */
+@Document(collection = "games_archive")
+public class ArchivedGame {
+
+    /** A seat as it was settled, without its cards. */
+    public static class Seat {
+
+        private String playerId;
+        private PlayerAction action;
+        private int bet;
+        private Integer payout;
+
+        public Seat() {
+        }
+
+        Seat(PlayerState playerState) {
+            this.playerId = playerState.getPlayerId();
+            this.action = playerState.getAction();
+            this.bet = playerState.getBet();
+            this.payout = playerState.getPayout();
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public PlayerAction getAction() {
+            return action;
+        }
+
+        public int getBet() {
+            return bet;
+        }
+
+        public Integer getPayout() {
+            return payout;
+        }
+    }
+
+    @Id
+    private String id;
+    private long version;
+    private List<Seat> seats;
+    private byte[] hands;
+    private Instant createdAt;
+    private Instant finishedAt;
+    // Start of the archive's retention, expired by a TTL index
+    private Instant archivedAt;
+
+    public ArchivedGame() {
+    }
+
+    public static ArchivedGame of(Game game, Instant archivedAt) {
+        ArchivedGame archived = new ArchivedGame();
+        archived.id = game.getId();
+        archived.version = game.getVersion() == null ? 0 : game.getVersion();
+        archived.seats = new ArrayList<>(game.getPlayersState().size());
+        ByteArrayOutputStream hands = new ByteArrayOutputStream();
+        for (PlayerState playerState : game.getPlayersState()) {
+            archived.seats.add(new Seat(playerState));
+            writeHand(hands, playerState.getPlayerHand());
+        }
+        writeHand(hands, game.getDealerHand());
+        archived.hands = hands.toByteArray();
+        archived.createdAt = game.getCreatedAt();
+        archived.finishedAt = game.getFinishedAt();
+        archived.archivedAt = archivedAt;
+        return archived;
+    }
+
+    // The finished game as it was in the games collection, without its shoe
+    public Game toGame() {
+        Game game = new Game();
+        game.setId(id);
+        game.setVersion(version);
+        game.setGameState(GameState.FINISHED);
+        game.setCreatedAt(createdAt);
+        game.setFinishedAt(finishedAt);
+        int offset = 0;
+        List<PlayerState> playerStates = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            PlayerState playerState = new PlayerState(seat.playerId);
+            playerState.setHand(readHand(offset));
+            offset += hands[offset] + 1;
+            playerState.setAction(seat.action);
+            playerState.setBet(seat.bet);
+            playerState.setPayout(seat.payout);
+            playerStates.add(playerState);
+        }
+        game.setPlayersState(playerStates);
+        game.setDealerHand(readHand(offset));
+        return game;
+    }
+
+    private static void writeHand(ByteArrayOutputStream hands, CardList hand) {
+        byte[] cards = hand == null ? new byte[0] : hand.toByteArray();
+        hands.write(cards.length);
+        hands.write(cards, 0, cards.length);
+    }
+
+    private CardList readHand(int offset) {
+        byte[] cards = new byte[hands[offset]];
+        System.arraycopy(hands, offset + 1, cards, 0, cards.length);
+        return CardList.fromBytes(cards);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Seat> getSeats() {
+        return seats;
+    }
+
+    public byte[] getHands() {
+        return hands;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+/**
+ * One move of a batch sent to {@code POST /game/moves}.
+ */
+public class BatchedMove {
+
+    private String gameId;
+    private String playerId;
+    private MoveRequest move;
+
+    public BatchedMove() {
+    }
+
+    public BatchedMove(String gameId, String playerId, MoveRequest move) {
+        this.gameId = gameId;
+        this.playerId = playerId;
+        this.move = move;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+
+    public MoveRequest getMove() {
+        return move;
+    }
+
+    public void setMove(MoveRequest move) {
+        this.move = move;
+    }
+}
@@ -0,0 +1,116 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * A playing card packed into a single byte: the rank index (0 = "2" ... 12 = "A")
+ * in the high bits and the suit index in the low two bits.
+ * <p>
+ * There are only 52 distinct cards, so every instance is cached and {@link #of(byte)}
+ * never allocates. Cards are rendered as their usual label ("10H", "AS") in JSON.
+ */
+public final class Card {
+
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+
+    private static final String[] RANK_LABELS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+    private static final String SUIT_LABELS = "HDCS";
+    private static final int ACE = 12;
+
+    private static final Card[] CARDS = new Card[RANKS * SUITS];
+
+    static {
+        for (int code = 0; code < CARDS.length; code++) {
+            CARDS[code] = new Card((byte) code);
+        }
+    }
+
+    private final byte code;
+
+    private Card(byte code) {
+        this.code = code;
+    }
+
+    public static Card of(int rank, int suit) {
+        if (rank < 0 || rank >= RANKS || suit < 0 || suit >= SUITS) {
+            throw new IllegalArgumentException("Invalid card rank " + rank + " or suit " + suit);
+        }
+        return CARDS[(rank << 2) | suit];
+    }
+
+    public static Card of(byte code) {
+        if (code < 0 || code >= CARDS.length) {
+            throw new IllegalArgumentException("Invalid card code: " + code);
+        }
+        return CARDS[code];
+    }
+
+    @JsonCreator
+    public static Card parse(String label) {
+        if (label == null || label.length() < 2) {
+            throw new IllegalArgumentException("Invalid card: " + label);
+        }
+        String rankLabel = label.substring(0, label.length() - 1);
+        int suit = SUIT_LABELS.indexOf(label.charAt(label.length() - 1));
+        int rank = "T".equals(rankLabel) ? 8 : indexOfRank(rankLabel);
+        if (rank < 0 || suit < 0) {
+            throw new IllegalArgumentException("Invalid card: " + label);
+        }
+        return of(rank, suit);
+    }
+
+    private static int indexOfRank(String rankLabel) {
+        for (int i = 0; i < RANK_LABELS.length; i++) {
+            if (RANK_LABELS[i].equals(rankLabel)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public int getRank() {
+        return code >> 2;
+    }
+
+    public int getSuit() {
+        return code & 3;
+    }
+
+    public boolean isAce() {
+        return getRank() == ACE;
+    }
+
+    /**
+     * Blackjack value of the card, counting an ace as 11 and court cards as 10.
+     */
+    public int getValue() {
+        int rank = getRank();
+        if (rank == ACE) {
+            return 11;
+        }
+        return Math.min(rank + 2, 10);
+    }
+
+    /**
+     * Blackjack value of the card, counting an ace as 1.
+     */
+    public int getHardValue() {
+        int rank = getRank();
+        if (rank == ACE) {
+            return 1;
+        }
+        return Math.min(rank + 2, 10);
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        return RANK_LABELS[getRank()] + SUIT_LABELS.charAt(getSuit());
+    }
+}
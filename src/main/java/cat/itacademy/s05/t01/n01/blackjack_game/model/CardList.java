@@ -0,0 +1,108 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * List of cards stored as one byte per card. Used for the deck and for every hand.
+ */
+public class CardList extends AbstractList<Card> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private byte[] cards;
+    private int size;
+
+    public CardList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CardList(int capacity) {
+        this.cards = new byte[Math.max(capacity, 1)];
+    }
+
+    public static CardList of(String... labels) {
+        CardList list = new CardList(labels.length);
+        for (String label : labels) {
+            list.add(Card.parse(label));
+        }
+        return list;
+    }
+
+    public static CardList fromBytes(byte[] bytes) {
+        CardList list = new CardList(bytes.length);
+        for (byte code : bytes) {
+            Card.of(code);
+        }
+        System.arraycopy(bytes, 0, list.cards, 0, bytes.length);
+        list.size = bytes.length;
+        return list;
+    }
+
+    public CardList copy() {
+        CardList list = new CardList(size);
+        System.arraycopy(cards, 0, list.cards, 0, size);
+        list.size = size;
+        return list;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(cards, size);
+    }
+
+    @Override
+    public Card get(int index) {
+        checkIndex(index);
+        return Card.of(cards[index]);
+    }
+
+    @Override
+    public Card set(int index, Card card) {
+        checkIndex(index);
+        Card previous = Card.of(cards[index]);
+        cards[index] = card.getCode();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Card card) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == cards.length) {
+            cards = Arrays.copyOf(cards, cards.length * 2);
+        }
+        System.arraycopy(cards, index, cards, index + 1, size - index);
+        cards[index] = card.getCode();
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Card remove(int index) {
+        checkIndex(index);
+        Card removed = Card.of(cards[index]);
+        System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+public class CreatedGame {
+
+    // Position of the table in the bulk request
+    private final int table;
+    private final String gameId;
+
+    public CreatedGame(int table, String gameId) {
+        this.table = table;
+        this.gameId = gameId;
+    }
+
+    public int getTable() {
+        return table;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+}
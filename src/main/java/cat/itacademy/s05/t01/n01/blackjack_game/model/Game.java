@@ -1,7 +1,16 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.model;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.CardListConverter;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Document(collection = "games")
@@ -9,11 +18,57 @@ public class Game {
 
     @Id
     private String id;
+    @Version
+    private Long version;
     private List<PlayerState> playersState;
     private GameState gameState;
-    private List<String> deck;
-    private List<String> dealerHand;
+    private Shoe deck;
+    @ValueConverter(CardListConverter.class)
+    private CardList dealerHand;
     private int dealerScore;
+    private int dealerHardTotal;
+    private int dealerAces;
+    // When the game was opened; listings page through games by it
+    private Instant createdAt;
+    // When the round was settled; finished games are archived some time after it
+    private Instant finishedAt;
+    // Set when the shoe was rebuilt since the game was loaded, so a move has to rewrite it entirely
+    @Transient
+    private boolean shoeReplaced;
+    // Changes made to this instance since it was loaded, pushed to subscribers once they are saved
+    @Transient
+    private List<GameEvent> pendingEvents = new ArrayList<>();
+    // History entries recorded since the game was loaded, appended to its history once they are saved
+    @Transient
+    private List<GameHistoryEvent> pendingHistory = new ArrayList<>();
+    // Cards dealt and shoes played down to their cut card since the game was loaded, counted once it is saved
+    @Transient
+    private int cardsDealt;
+    @Transient
+    private int shoesExhausted;
+
+    /**
+     * Deep copy of the mutable state, so a move can work on its own instance of a cached game.
+     */
+    public Game copy() {
+        Game copy = new Game();
+        copy.id = id;
+        copy.version = version;
+        if (playersState != null) {
+            copy.playersState = new ArrayList<>(playersState.size());
+            playersState.forEach(playerState -> copy.playersState.add(playerState.copy()));
+        }
+        copy.gameState = gameState;
+        copy.deck = deck == null ? null : deck.copy();
+        copy.dealerHand = dealerHand == null ? null : dealerHand.copy();
+        copy.dealerScore = dealerScore;
+        copy.dealerHardTotal = dealerHardTotal;
+        copy.dealerAces = dealerAces;
+        copy.createdAt = createdAt;
+        copy.finishedAt = finishedAt;
+        copy.shoeReplaced = shoeReplaced;
+        return copy;
+    }
 
     public String getId() {
         return id;
@@ -23,6 +78,14 @@ public class Game {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<PlayerState> getPlayersState() {
         return playersState;
     }
@@ -39,27 +102,130 @@ public class Game {
         this.gameState = gameState;
     }
 
-    public List<String> getDeck() {
+    // The undealt cards would tell players what comes next, so the shoe never leaves the server
+    @JsonIgnore
+    public Shoe getDeck() {
         return deck;
     }
 
-    public void setDeck(List<String> deck) {
+    public void setDeck(Shoe deck) {
         this.deck = deck;
     }
 
-    public List<String> getDealerHand() {
+    public void replaceDeck(Shoe deck) {
+        this.deck = deck;
+        this.shoeReplaced = true;
+    }
+
+    @JsonIgnore
+    public boolean isShoeReplaced() {
+        return shoeReplaced;
+    }
+
+    public void clearShoeReplaced() {
+        shoeReplaced = false;
+    }
+
+    public void recordEvent(GameEvent event) {
+        pendingEvents.add(event);
+    }
+
+    @JsonIgnore
+    public List<GameEvent> getRecordedEvents() {
+        return Collections.unmodifiableList(pendingEvents);
+    }
+
+    public void recordHistory(GameHistoryEvent event) {
+        pendingHistory.add(event);
+    }
+
+    @JsonIgnore
+    public List<GameHistoryEvent> getRecordedHistory() {
+        return Collections.unmodifiableList(pendingHistory);
+    }
+
+    public void recordCardDealt() {
+        cardsDealt++;
+    }
+
+    public void recordShoeExhausted() {
+        shoesExhausted++;
+    }
+
+    @JsonIgnore
+    public int getCardsDealt() {
+        return cardsDealt;
+    }
+
+    @JsonIgnore
+    public int getShoesExhausted() {
+        return shoesExhausted;
+    }
+
+    public CardList getDealerHand() {
         return dealerHand;
     }
 
-    public void setDealerHand(List<String> dealerHand) {
+    public void setDealerHand(CardList dealerHand) {
         this.dealerHand = dealerHand;
+        this.dealerHardTotal = 0;
+        this.dealerAces = 0;
+        for (int i = 0; i < dealerHand.size(); i++) {
+            countDealerCard(dealerHand.get(i));
+        }
+        this.dealerScore = CardUtils.handValue(dealerHardTotal, dealerAces);
+    }
+
+    public void addDealerCard(Card card) {
+        dealerHand.add(card);
+        countDealerCard(card);
+        dealerScore = CardUtils.handValue(dealerHardTotal, dealerAces);
+    }
+
+    private void countDealerCard(Card card) {
+        dealerHardTotal += card.getHardValue();
+        if (card.isAce()) {
+            dealerAces++;
+        }
     }
 
     public int getDealerScore() {
         return dealerScore;
     }
 
-    public void setDealerScore(int dealerScore) {
-        this.dealerScore = dealerScore;
+    public int getDealerHardTotal() {
+        return dealerHardTotal;
+    }
+
+    public int getDealerAces() {
+        return dealerAces;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public boolean isDealerSoft() {
+        return CardUtils.isSoft(dealerHardTotal, dealerAces);
+    }
+
+    public boolean isDealerBust() {
+        return CardUtils.isBust(dealerHardTotal);
+    }
+
+    public boolean isDealerBlackjack() {
+        return dealerHand != null && CardUtils.isBlackjack(dealerHand.size(), dealerHardTotal, dealerAces);
     }
 }
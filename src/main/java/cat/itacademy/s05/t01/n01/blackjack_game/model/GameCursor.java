@@ -0,0 +1,50 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import java.time.Instant;
+
+/**
+ * Where a listing of games stopped: the creation time and id of the last game returned. Games are
+ * listed newest first, so the next page starts right after this key instead of skipping the
+ * games already seen. Games created before their creation time was recorded come last.
+ */
+public class GameCursor {
+
+    private final Instant createdAt;
+    private final String id;
+
+    public GameCursor(Instant createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static GameCursor of(Game game) {
+        return new GameCursor(game.getCreatedAt(), game.getId());
+    }
+
+    // Written as the creation time in epoch milliseconds, empty when unknown, then a colon and the id
+    public static GameCursor parse(String cursor) {
+        int colon = cursor.indexOf(':');
+        if (colon < 0 || colon == cursor.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            Instant createdAt = colon == 0 ? null : Instant.ofEpochMilli(Long.parseLong(cursor.substring(0, colon)));
+            return new GameCursor(createdAt, cursor.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return (createdAt == null ? "" : String.valueOf(createdAt.toEpochMilli())) + ":" + id;
+    }
+}
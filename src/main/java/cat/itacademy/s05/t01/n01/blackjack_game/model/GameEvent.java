@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A change to a game pushed to its subscribers. Only the fields relevant to the type are set;
+ * a card dealt without a player id went to the dealer.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameEvent {
+
+    public enum Type {
+        CARD_DEALT,
+        ACTION_CHANGED,
+        PLAYER_SETTLED,
+        GAME_FINISHED
+    }
+
+    private final Type type;
+    private final String gameId;
+    private final String playerId;
+    private final Card card;
+    // Player score, or the dealer's when no player id is set
+    private final Integer score;
+    private final PlayerAction action;
+    private final Integer payout;
+
+    private GameEvent(Type type, String gameId, String playerId, Card card, Integer score, PlayerAction action, Integer payout) {
+        this.type = type;
+        this.gameId = gameId;
+        this.playerId = playerId;
+        this.card = card;
+        this.score = score;
+        this.action = action;
+        this.payout = payout;
+    }
+
+    public static GameEvent cardDealt(String gameId, String playerId, Card card, int score) {
+        return new GameEvent(Type.CARD_DEALT, gameId, playerId, card, score, null, null);
+    }
+
+    public static GameEvent actionChanged(String gameId, String playerId, PlayerAction action) {
+        return new GameEvent(Type.ACTION_CHANGED, gameId, playerId, null, null, action, null);
+    }
+
+    public static GameEvent playerSettled(String gameId, String playerId, int payout) {
+        return new GameEvent(Type.PLAYER_SETTLED, gameId, playerId, null, null, null, payout);
+    }
+
+    public static GameEvent gameFinished(String gameId, int dealerScore) {
+        return new GameEvent(Type.GAME_FINISHED, gameId, null, null, dealerScore, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public Card getCard() {
+        return card;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public PlayerAction getAction() {
+        return action;
+    }
+
+    public Integer getPayout() {
+        return payout;
+    }
+}
@@ -0,0 +1,168 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.CardListConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One entry of a game's append-only history. Entries are recorded on the game while a move is
+ * applied and written once the move is saved, stamped with the version the save produced and their
+ * position within it. Applied in that order on top of a {@link GameSnapshot}, they give the game
+ * at any later version. Only the fields relevant to the type are set.
+ */
+@Document(collection = "game_history")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameHistoryEvent {
+
+    public enum Type {
+        // A move as the player asked for it; HIT and DOUBLED_DOWN are followed by the card dealt
+        ACTION_TAKEN,
+        CARD_DEALT,
+        DEALER_DREW,
+        // The cut card came out and a new shoe was shuffled from the seed, without the cards in play
+        SHOE_SHUFFLED,
+        GAME_SETTLED
+    }
+
+    @Id
+    private String id;
+    private String gameId;
+    private long version;
+    private int seq;
+    private Type type;
+    private String playerId;
+    private String card;
+    private PlayerAction action;
+    private Integer amountBet;
+    private Map<String, Integer> payouts;
+    private Integer dealerScore;
+    private Long seed;
+    private Integer decks;
+    @ValueConverter(CardListConverter.class)
+    private CardList inPlay;
+    private Integer cutCard;
+    private Instant recordedAt;
+
+    public GameHistoryEvent() {
+    }
+
+    private GameHistoryEvent(Type type) {
+        this.type = type;
+        this.recordedAt = Instant.now();
+    }
+
+    public static GameHistoryEvent actionTaken(String playerId, PlayerAction action, int amountBet) {
+        GameHistoryEvent event = new GameHistoryEvent(Type.ACTION_TAKEN);
+        event.playerId = playerId;
+        event.action = action;
+        event.amountBet = amountBet;
+        return event;
+    }
+
+    public static GameHistoryEvent cardDealt(String playerId, Card card) {
+        GameHistoryEvent event = new GameHistoryEvent(Type.CARD_DEALT);
+        event.playerId = playerId;
+        event.card = card.toString();
+        return event;
+    }
+
+    public static GameHistoryEvent dealerDrew(Card card) {
+        GameHistoryEvent event = new GameHistoryEvent(Type.DEALER_DREW);
+        event.card = card.toString();
+        return event;
+    }
+
+    public static GameHistoryEvent shoeShuffled(Shoe shoe) {
+        GameHistoryEvent event = new GameHistoryEvent(Type.SHOE_SHUFFLED);
+        event.seed = shoe.getSeed();
+        event.decks = shoe.getDecks();
+        event.inPlay = shoe.getInPlay();
+        event.cutCard = shoe.getCutCard();
+        return event;
+    }
+
+    public static GameHistoryEvent gameSettled(Map<String, Integer> payouts, int dealerScore) {
+        GameHistoryEvent event = new GameHistoryEvent(Type.GAME_SETTLED);
+        event.payouts = payouts;
+        event.dealerScore = dealerScore;
+        return event;
+    }
+
+    // Set when the move that recorded the event has been saved
+    public void stamp(String gameId, long version, int seq) {
+        this.gameId = gameId;
+        this.version = version;
+        this.seq = seq;
+    }
+
+    @JsonIgnore
+    public String getId() {
+        return id;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getCard() {
+        return card;
+    }
+
+    public PlayerAction getAction() {
+        return action;
+    }
+
+    public Integer getAmountBet() {
+        return amountBet;
+    }
+
+    public Map<String, Integer> getPayouts() {
+        return payouts;
+    }
+
+    public Integer getDealerScore() {
+        return dealerScore;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public Integer getDecks() {
+        return decks;
+    }
+
+    public CardList getInPlay() {
+        return inPlay;
+    }
+
+    public Integer getCutCard() {
+        return cutCard;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A game as it was saved at one version, the starting point for replaying its later history.
+ */
+@Document(collection = "game_snapshots")
+public class GameSnapshot {
+
+    @Id
+    private String id;
+    private String gameId;
+    private long version;
+    private Game game;
+    private Instant takenAt;
+
+    public GameSnapshot() {
+    }
+
+    public GameSnapshot(Game game) {
+        this.id = game.getId() + ":" + game.getVersion();
+        this.gameId = game.getId();
+        this.version = game.getVersion() == null ? 0 : game.getVersion();
+        this.game = game;
+        this.takenAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+}
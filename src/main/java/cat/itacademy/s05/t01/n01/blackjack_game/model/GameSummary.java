@@ -0,0 +1,55 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One line of a game listing: enough to tell the games apart, without hands or shoe. The cursor
+ * is passed back as {@code after} to get the games that follow.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameSummary {
+
+    private final String id;
+    private final GameState gameState;
+    private final List<String> playerIds;
+    private final Instant createdAt;
+    private final Instant finishedAt;
+    private final String cursor;
+
+    public GameSummary(Game game) {
+        this.id = game.getId();
+        this.gameState = game.getGameState();
+        this.playerIds = game.getPlayersState() == null ? List.of()
+                : game.getPlayersState().stream().map(PlayerState::getPlayerId).toList();
+        this.createdAt = game.getCreatedAt();
+        this.finishedAt = game.getFinishedAt();
+        this.cursor = GameCursor.of(game).toString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public List<String> getPlayerIds() {
+        return playerIds;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+}
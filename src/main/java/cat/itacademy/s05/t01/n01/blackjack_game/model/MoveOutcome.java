@@ -0,0 +1,82 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+/**
+ * Result of one move of a batch. Applied moves carry the player's action and score right after the
+ * move, and the game state and version once the batch was saved; rejected moves carry the reason.
+ */
+public class MoveOutcome {
+
+    // Position of the move in the batch
+    private int index;
+    private String gameId;
+    private String playerId;
+    private boolean applied;
+    private PlayerAction action;
+    private int score;
+    private GameState gameState;
+    private Long version;
+    private String error;
+
+    public static MoveOutcome applied(int index, BatchedMove move, PlayerState playerState) {
+        MoveOutcome outcome = new MoveOutcome(index, move);
+        outcome.applied = true;
+        outcome.action = playerState.getAction();
+        outcome.score = playerState.getScore();
+        return outcome;
+    }
+
+    public static MoveOutcome rejected(int index, BatchedMove move, String error) {
+        MoveOutcome outcome = new MoveOutcome(index, move);
+        outcome.error = error;
+        return outcome;
+    }
+
+    private MoveOutcome(int index, BatchedMove move) {
+        this.index = index;
+        this.gameId = move.getGameId();
+        this.playerId = move.getPlayerId();
+    }
+
+    public void recordSaved(Game game) {
+        if (applied) {
+            this.gameState = game.getGameState();
+            this.version = game.getVersion();
+        }
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public PlayerAction getAction() {
+        return action;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
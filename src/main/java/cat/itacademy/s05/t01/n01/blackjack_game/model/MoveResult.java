@@ -0,0 +1,43 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import java.util.List;
+
+/**
+ * What a move changed: the cards it dealt with the resulting scores, the actions it changed and,
+ * when it ended the round, the dealer's cards and the payouts. The version lets a client check it
+ * has not missed a move since the last state it saw.
+ */
+public class MoveResult {
+
+    private final String gameId;
+    private final Long version;
+    private final GameState gameState;
+    private final List<GameEvent> changes;
+
+    public MoveResult(String gameId, Long version, GameState gameState, List<GameEvent> changes) {
+        this.gameId = gameId;
+        this.version = version;
+        this.gameState = gameState;
+        this.changes = changes;
+    }
+
+    public static MoveResult of(Game game) {
+        return new MoveResult(game.getId(), game.getVersion(), game.getGameState(), List.copyOf(game.getRecordedEvents()));
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public List<GameEvent> getChanges() {
+        return changes;
+    }
+}
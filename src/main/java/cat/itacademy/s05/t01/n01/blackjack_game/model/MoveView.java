@@ -0,0 +1,7 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+// Shape of a move response: only the changes, or the whole game as before
+public enum MoveView {
+    DELTA,
+    FULL
+}
@@ -1,18 +1,17 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.model;
 
-import jakarta.persistence.Entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.util.Objects;
-import java.util.UUID;
 
-@Entity
 @Table("players")
 public class Player {
 
+    // The players.id INT AUTO_INCREMENT column. Everywhere else (game documents, URLs, the
+    // leaderboard) a player id is a string, so the accessors convert; Spring Data maps the field.
     @Id
-    private String id;
+    private Long id;
     private String name;
     private int score;
     private int totalWins;
@@ -32,7 +31,11 @@ public class Player {
     }
 
     public void setId(String id) {
-        this.id = id;
+        Long key = toKey(id);
+        if (id != null && key == null) {
+            throw new IllegalArgumentException("Invalid player id: " + id);
+        }
+        this.id = key;
     }
 
     public int getScore() {
@@ -40,20 +43,50 @@ public class Player {
     }
 
     public String getId() {
-        return id;
+        return id == null ? null : id.toString();
+    }
+
+    // The key of a player id, or null for an id that cannot belong to any player. Ids are written
+    // the way getId writes them, so "007" or "+7" name no player rather than player 7.
+    public static Long toKey(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            Long key = Long.valueOf(id);
+            return key > 0 && key.toString().equals(id) ? key : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     public String getName() {
         return name;
     }
 
+    public int getTotalWins() {
+        return totalWins;
+    }
+
+    public void setTotalWins(int totalWins) {
+        this.totalWins = totalWins;
+    }
+
+    public int getTotalLosses() {
+        return totalLosses;
+    }
+
+    public void setTotalLosses(int totalLosses) {
+        this.totalLosses = totalLosses;
+    }
+
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Player player = (Player) o;
-        return id == player.id &&
+        return Objects.equals(id, player.id) &&
                 score == player.score &&
                 Objects.equals(name, player.name);
     }
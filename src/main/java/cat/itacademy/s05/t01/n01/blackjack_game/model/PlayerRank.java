@@ -0,0 +1,33 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+public class PlayerRank {
+
+    private final String playerId;
+    private final String name;
+    private final int score;
+    // 1 + the number of players with a strictly higher score, so tied players share a rank
+    private final long rank;
+
+    public PlayerRank(String playerId, String name, int score, long rank) {
+        this.playerId = playerId;
+        this.name = name;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getRank() {
+        return rank;
+    }
+}
@@ -1,22 +1,37 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.CardListConverter;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import org.springframework.data.convert.ValueConverter;
 
 public class PlayerState {
     private String playerId;
-    private List<String> hand;
+    @ValueConverter(CardListConverter.class)
+    private CardList hand;
     private int score;
+    private int hardTotal;
+    private int aces;
     private PlayerAction action;
+    private int bet;
+    // Net change to the player's score once the round is settled
+    private Integer payout;
 
     public PlayerState(String playerId) {
         this.playerId = playerId;
         this.action = PlayerAction.PLAYING;
-        this.hand = new ArrayList<>();
+        this.hand = new CardList();
     }
 
-    public void setScore(int score) {
-        this.score = score;
+    public PlayerState copy() {
+        PlayerState copy = new PlayerState(playerId);
+        copy.hand = hand.copy();
+        copy.score = score;
+        copy.hardTotal = hardTotal;
+        copy.aces = aces;
+        copy.action = action;
+        copy.bet = bet;
+        copy.payout = payout;
+        return copy;
     }
 
     public void setAction(PlayerAction playerAction) {
@@ -27,8 +42,43 @@ public class PlayerState {
         this.playerId = playerId;
     }
 
-    public void setHand(List<String> hand) {
+    public void setHand(CardList hand) {
         this.hand = hand;
+        this.hardTotal = 0;
+        this.aces = 0;
+        for (int i = 0; i < hand.size(); i++) {
+            countCard(hand.get(i));
+        }
+        this.score = CardUtils.handValue(hardTotal, aces);
+    }
+
+    public void addCard(Card card) {
+        hand.add(card);
+        countCard(card);
+        score = CardUtils.handValue(hardTotal, aces);
+    }
+
+    private void countCard(Card card) {
+        hardTotal += card.getHardValue();
+        if (card.isAce()) {
+            aces++;
+        }
+    }
+
+    public int getBet() {
+        return bet;
+    }
+
+    public void setBet(int bet) {
+        this.bet = bet;
+    }
+
+    public Integer getPayout() {
+        return payout;
+    }
+
+    public void setPayout(Integer payout) {
+        this.payout = payout;
     }
 
     public String getPlayerId() {
@@ -43,10 +93,30 @@ public class PlayerState {
         return score;
     }
 
-    public List<String> getPlayerHand() {
+    public CardList getPlayerHand() {
         return hand;
     }
 
+    public int getHardTotal() {
+        return hardTotal;
+    }
+
+    public int getAces() {
+        return aces;
+    }
+
+    public boolean isSoft() {
+        return CardUtils.isSoft(hardTotal, aces);
+    }
+
+    public boolean isBust() {
+        return CardUtils.isBust(hardTotal);
+    }
+
+    public boolean isBlackjack() {
+        return CardUtils.isBlackjack(hand.size(), hardTotal, aces);
+    }
+
     @Override
     public String toString() {
         return "PlayerState{" +
@@ -54,6 +124,8 @@ public class PlayerState {
                 ", hand=" + hand +
                 ", score=" + score +
                 ", action=" + action +
+                ", bet=" + bet +
+                ", payout=" + payout +
                 '}';
     }
 }
\ No newline at end of file
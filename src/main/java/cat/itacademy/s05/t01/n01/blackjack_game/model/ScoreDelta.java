@@ -0,0 +1,45 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+/**
+ * Pending change to a player's score and win/loss totals. Deltas for the same player add up,
+ * so any number of settled rounds turns into a single row update.
+ */
+public final class ScoreDelta {
+
+    private final String playerId;
+    private final int score;
+    private final int wins;
+    private final int losses;
+
+    public ScoreDelta(String playerId, int score, int wins, int losses) {
+        this.playerId = playerId;
+        this.score = score;
+        this.wins = wins;
+        this.losses = losses;
+    }
+
+    public static ScoreDelta of(PlayerState playerState) {
+        int payout = playerState.getPayout();
+        return new ScoreDelta(playerState.getPlayerId(), payout, payout > 0 ? 1 : 0, payout < 0 ? 1 : 0);
+    }
+
+    public ScoreDelta plus(ScoreDelta other) {
+        return new ScoreDelta(playerId, score + other.score, wins + other.wins, losses + other.losses);
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+}
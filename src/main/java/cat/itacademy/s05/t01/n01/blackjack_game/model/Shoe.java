@@ -0,0 +1,135 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.exception.DeckEmptyException;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.CardListConverter;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.convert.ValueConverter;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The dealing shoe: a shuffled card sequence that is never modified, a cursor pointing at the
+ * next card to deal and the position of the cut card. Dealing only moves the cursor.
+ * <p>
+ * A shoe shuffled from a seed stores the seed, the number of decks and the cards that were on the
+ * table when it was shuffled, and the card sequence is rebuilt from them when the game is loaded.
+ * Only shoes built from an explicit card list store their cards.
+ */
+public class Shoe {
+
+    @ValueConverter(CardListConverter.class)
+    private CardList cards;
+    private Long seed;
+    private int decks;
+    // Cards left out of the shoe because they were on the table when it was shuffled
+    @ValueConverter(CardListConverter.class)
+    private CardList inPlay;
+    private int cursor;
+    private int cutCard;
+    @Transient
+    private CardList rebuilt;
+    // Cards dealt since the shoe was loaded or last saved, so a move can persist a cursor increment
+    @Transient
+    private int pendingDeals;
+
+    public Shoe() {
+    }
+
+    public Shoe(CardList cards) {
+        this(cards, cards.size());
+    }
+
+    public Shoe(CardList cards, int cutCard) {
+        this.cards = cards;
+        this.cutCard = Math.min(cutCard, cards.size());
+    }
+
+    /**
+     * Shuffles {@code decks} decks from {@code seed}, leaving out {@code inPlay}. The cut card is
+     * placed by {@code cutCardPosition} from the number of cards in the shoe.
+     */
+    public static Shoe fromSeed(long seed, int decks, CardList inPlay, IntUnaryOperator cutCardPosition) {
+        Shoe shoe = new Shoe();
+        shoe.seed = seed;
+        shoe.decks = decks;
+        shoe.inPlay = inPlay == null || inPlay.isEmpty() ? null : inPlay;
+        shoe.cutCard = cutCardPosition.applyAsInt(shoe.cards().size());
+        return shoe;
+    }
+
+    // The card sequence never changes, so a copy only needs its own cursor
+    public Shoe copy() {
+        Shoe copy = new Shoe();
+        copy.cards = cards;
+        copy.seed = seed;
+        copy.decks = decks;
+        copy.inPlay = inPlay;
+        copy.rebuilt = rebuilt;
+        copy.cursor = cursor;
+        copy.cutCard = cutCard;
+        copy.pendingDeals = pendingDeals;
+        return copy;
+    }
+
+    public Card deal() {
+        CardList sequence = cards();
+        if (cursor >= sequence.size()) {
+            throw new DeckEmptyException();
+        }
+        pendingDeals++;
+        return sequence.get(cursor++);
+    }
+
+    public boolean isCutCardReached() {
+        return cursor >= cutCard;
+    }
+
+    public int remaining() {
+        return cards().size() - cursor;
+    }
+
+    @JsonIgnore
+    public int getPendingDeals() {
+        return pendingDeals;
+    }
+
+    public void clearPendingDeals() {
+        pendingDeals = 0;
+    }
+
+    public CardList getCards() {
+        return cards();
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    public CardList getInPlay() {
+        return inPlay;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getCutCard() {
+        return cutCard;
+    }
+
+    private CardList cards() {
+        if (cards != null) {
+            return cards;
+        }
+        if (rebuilt == null) {
+            rebuilt = seed == null ? new CardList() : CardUtils.createShuffledDeck(decks, seed, inPlay);
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,64 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.simulation.PlayStrategy;
+
+/**
+ * A Monte Carlo run: how many hands to play and how. The shoe settings default to the table's;
+ * the same seed replays the same hands.
+ */
+public class SimulationRequest {
+
+    private long hands = 1_000_000;
+    private PlayStrategy strategy = PlayStrategy.BASIC;
+    private Integer decks;
+    private Double penetration;
+    private Long seed;
+
+    public SimulationRequest() {
+    }
+
+    public SimulationRequest(long hands, PlayStrategy strategy) {
+        this.hands = hands;
+        this.strategy = strategy;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public void setHands(long hands) {
+        this.hands = hands;
+    }
+
+    public PlayStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(PlayStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Integer getDecks() {
+        return decks;
+    }
+
+    public void setDecks(Integer decks) {
+        this.decks = decks;
+    }
+
+    public Double getPenetration() {
+        return penetration;
+    }
+
+    public void setPenetration(Double penetration) {
+        this.penetration = penetration;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,114 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.simulation.PlayStrategy;
+
+/**
+ * Outcome of a Monte Carlo run. Money figures are in units of the initial bet: an expected value
+ * of -0.005 is a house edge of 0.5%. Rates are fractions of the hands played.
+ */
+public class SimulationResult {
+
+    private final long hands;
+    private final PlayStrategy strategy;
+    private final int decks;
+    private final double expectedValue;
+    private final double variance;
+    // Of the expected value, so the house edge is known to about twice this either way
+    private final double standardError;
+    private final double winRate;
+    private final double pushRate;
+    private final double lossRate;
+    private final double blackjackRate;
+    private final double playerBustRate;
+    private final double dealerBustRate;
+    private final double doubleRate;
+    private final double surrenderRate;
+    private final long elapsedMillis;
+    private final long handsPerSecond;
+
+    public SimulationResult(long hands, PlayStrategy strategy, int decks, double expectedValue, double variance,
+                            double winRate, double pushRate, double lossRate, double blackjackRate,
+                            double playerBustRate, double dealerBustRate, double doubleRate, double surrenderRate,
+                            long elapsedMillis) {
+        this.hands = hands;
+        this.strategy = strategy;
+        this.decks = decks;
+        this.expectedValue = expectedValue;
+        this.variance = variance;
+        this.standardError = Math.sqrt(variance / hands);
+        this.winRate = winRate;
+        this.pushRate = pushRate;
+        this.lossRate = lossRate;
+        this.blackjackRate = blackjackRate;
+        this.playerBustRate = playerBustRate;
+        this.dealerBustRate = dealerBustRate;
+        this.doubleRate = doubleRate;
+        this.surrenderRate = surrenderRate;
+        this.elapsedMillis = elapsedMillis;
+        this.handsPerSecond = elapsedMillis == 0 ? hands * 1000 : hands * 1000 / elapsedMillis;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public PlayStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    public double getExpectedValue() {
+        return expectedValue;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public double getWinRate() {
+        return winRate;
+    }
+
+    public double getPushRate() {
+        return pushRate;
+    }
+
+    public double getLossRate() {
+        return lossRate;
+    }
+
+    public double getBlackjackRate() {
+        return blackjackRate;
+    }
+
+    public double getPlayerBustRate() {
+        return playerBustRate;
+    }
+
+    public double getDealerBustRate() {
+        return dealerBustRate;
+    }
+
+    public double getDoubleRate() {
+        return doubleRate;
+    }
+
+    public double getSurrenderRate() {
+        return surrenderRate;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getHandsPerSecond() {
+        return handsPerSecond;
+    }
+}
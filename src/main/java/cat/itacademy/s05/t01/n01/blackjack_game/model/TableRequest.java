@@ -0,0 +1,41 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One table of a bulk creation: existing players are seated by id, new players are created by name.
+ */
+public class TableRequest {
+
+    private List<String> playerIds = new ArrayList<>();
+    private List<String> playerNames = new ArrayList<>();
+
+    public TableRequest() {
+    }
+
+    public TableRequest(List<String> playerIds, List<String> playerNames) {
+        this.playerIds = playerIds;
+        this.playerNames = playerNames;
+    }
+
+    public List<String> getPlayerIds() {
+        return playerIds;
+    }
+
+    public void setPlayerIds(List<String> playerIds) {
+        this.playerIds = playerIds == null ? new ArrayList<>() : playerIds;
+    }
+
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    public void setPlayerNames(List<String> playerNames) {
+        this.playerNames = playerNames == null ? new ArrayList<>() : playerNames;
+    }
+
+    public int seats() {
+        return playerIds.size() + playerNames.size();
+    }
+}
@@ -0,0 +1,53 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.replay;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A game played again: its state after the opening deal and after every move, the history the
+ * replay recorded and, when there was a recorded history to check it against, where the two first
+ * differ.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class GameReplay {
+
+    private final String gameId;
+    private final List<Game> states;
+    private final List<GameHistoryEvent> history;
+    private final String divergence;
+
+    GameReplay(String gameId, List<Game> states, List<GameHistoryEvent> history, String divergence) {
+        this.gameId = gameId;
+        this.states = states;
+        this.history = history;
+        this.divergence = divergence;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public List<Game> getStates() {
+        return states;
+    }
+
+    public List<GameHistoryEvent> getHistory() {
+        return history;
+    }
+
+    // Null when the replay dealt and played exactly what was recorded
+    public String getDivergence() {
+        return divergence;
+    }
+
+    public boolean isMatchingRecord() {
+        return divergence == null;
+    }
+
+    public Game getFinalState() {
+        return states.getLast();
+    }
+}
@@ -0,0 +1,270 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.replay;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameActionInteractor;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.ShoeCounter;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.Shuffler;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Plays recorded games again, in memory, through the same {@link GameActionInteractor} moves
+ * that dealt them, with nothing read from or written to a database.
+ * <p>
+ * The game is dealt from its recorded shoe and every reshuffle hands back the shoe that was
+ * recorded, so the replay deals the same cards as long as the rules draw the same number of them.
+ * Once the recorded shoes run out, further shoes are shuffled from seeds derived from the first
+ * one, so a game played under changed rules still replays the same way every time. Bulk replays
+ * run on a pool of their own and only keep what differs from the record.
+ */
+@Component
+public class GameReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(GameReplayer.class);
+
+    private static final int SAMPLE_DIVERGENCES = 20;
+
+    private final BlackjackProperties properties;
+    private final ShoeCounter shoeCounter = new ShoeCounter();
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public GameReplayer(BlackjackProperties properties) {
+        this.properties = properties;
+        int parallelism = properties.getReplay().getParallelism();
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Replays one game, keeping its state after the opening deal and after every move.
+     */
+    public GameReplay replay(RecordedGame recorded) {
+        List<Game> states = new ArrayList<>(recorded.getMoves().size() + 1);
+        Played played = play(recorded, states);
+        return new GameReplay(recorded.getGameId(), states, played.game.getRecordedHistory(),
+                divergence(recorded, played));
+    }
+
+    /**
+     * Replays every game on the replay pool and sums up which ones no longer play out as recorded.
+     * Blocks until the last game has been replayed.
+     */
+    public ReplaySummary replayAll(Stream<RecordedGame> games) {
+        long start = System.nanoTime();
+        ReplayTally tally;
+        try {
+            tally = pool.submit(() -> games.parallel()
+                    .collect(ReplayTally::new, this::replayInto, ReplayTally::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bulk replay failed", e.getCause());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Replayed games={} diverged={} in {} ms", tally.games, tally.diverged, elapsedMillis);
+        return new ReplaySummary(tally.games, tally.diverged, tally.samples, tally.recordedPayout,
+                tally.replayedPayout, elapsedMillis);
+    }
+
+    private void replayInto(ReplayTally tally, RecordedGame recorded) {
+        Played played = play(recorded, null);
+        Game game = played.game;
+        tally.games++;
+        tally.recordedPayout += recordedPayout(recorded);
+        if (game.getGameState() == GameState.FINISHED) {
+            for (PlayerState playerState : game.getPlayersState()) {
+                tally.replayedPayout += playerState.getPayout();
+            }
+        }
+        String divergence = divergence(recorded, played);
+        if (divergence != null) {
+            tally.diverged++;
+            if (tally.samples.size() < SAMPLE_DIVERGENCES) {
+                tally.samples.add(recorded.getGameId() + ": " + divergence);
+            }
+        }
+    }
+
+    // Deals the game again and plays its moves, adding a copy of every state to states when given
+    private Played play(RecordedGame recorded, List<Game> states) {
+        // A replay never saves, so the store, settlement, events and history are left out
+        GameActionInteractor interactor = new GameActionInteractor(null, null, null, null,
+                new RecordedShuffler(recorded), shoeCounter, ObservationRegistry.NOOP, properties);
+
+        Game game = new Game();
+        game.setId(recorded.getGameId());
+        game.setGameState(GameState.ONGOING);
+        game.setDealerHand(new CardList());
+        List<PlayerState> playerStates = new ArrayList<>(recorded.getBets().size());
+        recorded.getBets().forEach((playerId, bet) -> {
+            PlayerState playerState = new PlayerState(playerId);
+            playerState.setBet(bet);
+            playerStates.add(playerState);
+        });
+        game.setPlayersState(playerStates);
+        game.setDeck(recorded.getShoe().copy());
+
+        // Every move gets its own version, as it would if each had been saved on its own
+        long version = 0;
+        interactor.dealOpeningHands(game);
+        stamp(game, version, 0);
+        if (states != null) {
+            states.add(game.copy());
+        }
+        for (RecordedGame.Move move : recorded.getMoves()) {
+            int recordedBefore = game.getRecordedHistory().size();
+            try {
+                interactor.applyMove(game, move.getPlayerId(), move.getAction(), move.getAmountBet());
+            } catch (RuntimeException e) {
+                // The rest of the moves were made from a state this replay never reached
+                return new Played(game, "move " + move.getAction() + " by player " + move.getPlayerId()
+                        + " was rejected: " + e.getMessage());
+            }
+            stamp(game, ++version, recordedBefore);
+            if (states != null) {
+                states.add(game.copy());
+            }
+        }
+        return new Played(game, null);
+    }
+
+    private static void stamp(Game game, long version, int from) {
+        game.setVersion(version);
+        List<GameHistoryEvent> history = game.getRecordedHistory();
+        for (int seq = from; seq < history.size(); seq++) {
+            history.get(seq).stamp(game.getId(), version, seq - from);
+        }
+    }
+
+    // Where the replayed history first differs from the recorded one, or null when there is nothing to differ from
+    private static String divergence(RecordedGame recorded, Played played) {
+        if (played.rejection != null) {
+            return played.rejection;
+        }
+        List<GameHistoryEvent> replayed = played.game.getRecordedHistory();
+        List<GameHistoryEvent> expected = recorded.getHistory();
+        if (expected.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < Math.max(expected.size(), replayed.size()); i++) {
+            String was = i < expected.size() ? describe(expected.get(i)) : "nothing";
+            String is = i < replayed.size() ? describe(replayed.get(i)) : "nothing";
+            if (!was.equals(is)) {
+                long version = i < expected.size() ? expected.get(i).getVersion() : expected.getLast().getVersion();
+                return "version " + version + " recorded " + was + " but replayed " + is;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(GameHistoryEvent event) {
+        return switch (event.getType()) {
+            case ACTION_TAKEN -> event.getType() + " " + event.getPlayerId() + " " + event.getAction()
+                    + (event.getAmountBet() != null && event.getAmountBet() != 0 ? " " + event.getAmountBet() : "");
+            case CARD_DEALT -> event.getType() + " " + event.getPlayerId() + " " + event.getCard();
+            case DEALER_DREW -> event.getType() + " " + event.getCard();
+            case SHOE_SHUFFLED -> event.getType() + " " + event.getSeed();
+            case GAME_SETTLED -> event.getType() + " " + event.getPayouts() + " dealer " + event.getDealerScore();
+        };
+    }
+
+    private static long recordedPayout(RecordedGame recorded) {
+        long payout = 0;
+        for (GameHistoryEvent event : recorded.getHistory()) {
+            if (event.getType() == GameHistoryEvent.Type.GAME_SETTLED) {
+                for (Integer playerPayout : event.getPayouts().values()) {
+                    payout += playerPayout;
+                }
+            }
+        }
+        return payout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Hands back the recorded reshuffles in order, then shoes shuffled from seeds derived from the
+     * first shoe.
+     */
+    private static final class RecordedShuffler implements Shuffler {
+
+        private final Iterator<RecordedGame.Reshuffle> reshuffles;
+        private final SplittableRandom seeds;
+
+        private RecordedShuffler(RecordedGame recorded) {
+            this.reshuffles = recorded.getReshuffles().iterator();
+            Long seed = recorded.getShoe().getSeed();
+            this.seeds = new SplittableRandom(seed != null ? seed : recorded.getGameId().hashCode());
+        }
+
+        @Override
+        public long nextSeed() {
+            return seeds.nextLong();
+        }
+
+        @Override
+        public Shoe newShoe(int decks, CardList inPlay, IntUnaryOperator cutCardPosition) {
+            if (!reshuffles.hasNext()) {
+                return Shuffler.super.newShoe(decks, inPlay, cutCardPosition);
+            }
+            RecordedGame.Reshuffle reshuffle = reshuffles.next();
+            return Shoe.fromSeed(reshuffle.getSeed(), reshuffle.getDecks(), inPlay, size -> reshuffle.getCutCard());
+        }
+    }
+
+    private static final class Played {
+
+        final Game game;
+        // Why a move could not be made, which ends the replay there
+        final String rejection;
+
+        Played(Game game, String rejection) {
+            this.game = game;
+            this.rejection = rejection;
+        }
+    }
+
+    private static final class ReplayTally {
+
+        long games;
+        long diverged;
+        long recordedPayout;
+        long replayedPayout;
+        final List<String> samples = new ArrayList<>();
+
+        void merge(ReplayTally other) {
+            games += other.games;
+            diverged += other.diverged;
+            recordedPayout += other.recordedPayout;
+            replayedPayout += other.replayedPayout;
+            for (String sample : other.samples) {
+                if (samples.size() < SAMPLE_DIVERGENCES) {
+                    samples.add(sample);
+                }
+            }
+        }
+    }
+}
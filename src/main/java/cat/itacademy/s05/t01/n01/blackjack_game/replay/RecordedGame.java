@@ -0,0 +1,158 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.replay;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a game needs to be dealt and played again: the seats and their opening bets, the shoe
+ * it was dealt from, the shoes shuffled when the cut card came out and the moves in the order they
+ * were made. When it comes from a game's history, the history is kept too, so the replay can be
+ * checked against it.
+ */
+public final class RecordedGame {
+
+    /** One move as the player asked for it. */
+    public static final class Move {
+
+        private final String playerId;
+        private final PlayerAction action;
+        private final int amountBet;
+
+        public Move(String playerId, PlayerAction action, int amountBet) {
+            this.playerId = playerId;
+            this.action = action;
+            this.amountBet = amountBet;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public PlayerAction getAction() {
+            return action;
+        }
+
+        public int getAmountBet() {
+            return amountBet;
+        }
+    }
+
+    /** A shoe shuffled mid-game; the cards left out are the ones on the replayed table. */
+    public static final class Reshuffle {
+
+        private final long seed;
+        private final int decks;
+        private final int cutCard;
+
+        public Reshuffle(long seed, int decks, int cutCard) {
+            this.seed = seed;
+            this.decks = decks;
+            this.cutCard = cutCard;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getDecks() {
+            return decks;
+        }
+
+        public int getCutCard() {
+            return cutCard;
+        }
+    }
+
+    private final String gameId;
+    private final Map<String, Integer> bets;
+    private final Shoe shoe;
+    private final List<Reshuffle> reshuffles;
+    private final List<Move> moves;
+    private final List<GameHistoryEvent> history;
+
+    public RecordedGame(String gameId, Map<String, Integer> bets, Shoe shoe, List<Reshuffle> reshuffles,
+                        List<Move> moves) {
+        this(gameId, bets, shoe, reshuffles, moves, List.of());
+    }
+
+    private RecordedGame(String gameId, Map<String, Integer> bets, Shoe shoe, List<Reshuffle> reshuffles,
+                         List<Move> moves, List<GameHistoryEvent> history) {
+        this.gameId = gameId;
+        this.bets = Collections.unmodifiableMap(new LinkedHashMap<>(bets));
+        this.shoe = shoe;
+        this.reshuffles = List.copyOf(reshuffles);
+        this.moves = List.copyOf(moves);
+        this.history = List.copyOf(history);
+    }
+
+    /**
+     * The game as it was created, taken from the snapshot saved then, with the moves and reshuffles
+     * read from the history that followed it, in order.
+     */
+    public static RecordedGame fromHistory(GameSnapshot opening, List<GameHistoryEvent> history) {
+        Game game = opening.getGame();
+        Shoe dealt = game.getDeck();
+        if (dealt == null || dealt.getSeed() == null) {
+            throw new IllegalStateException("Game " + opening.getGameId() + " was not dealt from a seeded shoe");
+        }
+        Map<String, Integer> bets = new LinkedHashMap<>();
+        for (PlayerState playerState : game.getPlayersState()) {
+            bets.put(playerState.getPlayerId(), playerState.getBet());
+        }
+        List<Reshuffle> reshuffles = new ArrayList<>();
+        List<Move> moves = new ArrayList<>();
+        for (GameHistoryEvent event : history) {
+            switch (event.getType()) {
+                case SHOE_SHUFFLED -> {
+                    if (event.getVersion() == 0) {
+                        // The snapshot holds the shoe shuffled during the opening deal, not the one it started from
+                        throw new IllegalStateException("Game " + opening.getGameId()
+                                + " reshuffled during its opening deal, its first shoe was not recorded");
+                    }
+                    reshuffles.add(new Reshuffle(event.getSeed(), event.getDecks(), event.getCutCard()));
+                }
+                case ACTION_TAKEN -> moves.add(new Move(event.getPlayerId(), event.getAction(),
+                        event.getAmountBet() == null ? 0 : event.getAmountBet()));
+                default -> {
+                }
+            }
+        }
+        // The snapshot was saved after the opening deal; the replay deals it again from the top
+        Shoe shoe = Shoe.fromSeed(dealt.getSeed(), dealt.getDecks(), dealt.getInPlay(), size -> dealt.getCutCard());
+        return new RecordedGame(opening.getGameId(), bets, shoe, reshuffles, moves, history);
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Map<String, Integer> getBets() {
+        return bets;
+    }
+
+    public Shoe getShoe() {
+        return shoe;
+    }
+
+    public List<Reshuffle> getReshuffles() {
+        return reshuffles;
+    }
+
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    public List<GameHistoryEvent> getHistory() {
+        return history;
+    }
+}
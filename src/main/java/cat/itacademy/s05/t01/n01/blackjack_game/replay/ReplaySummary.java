@@ -0,0 +1,52 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.replay;
+
+import java.util.List;
+
+/**
+ * What a bulk replay found: how many games were played again, how many no longer play out as they
+ * were recorded, a sample of where they differ, and the payouts recorded against the payouts the
+ * replay settled.
+ */
+public final class ReplaySummary {
+
+    private final long games;
+    private final long diverged;
+    private final List<String> sampleDivergences;
+    private final long recordedPayout;
+    private final long replayedPayout;
+    private final long elapsedMillis;
+
+    ReplaySummary(long games, long diverged, List<String> sampleDivergences, long recordedPayout,
+                  long replayedPayout, long elapsedMillis) {
+        this.games = games;
+        this.diverged = diverged;
+        this.sampleDivergences = sampleDivergences;
+        this.recordedPayout = recordedPayout;
+        this.replayedPayout = replayedPayout;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getDiverged() {
+        return diverged;
+    }
+
+    public List<String> getSampleDivergences() {
+        return sampleDivergences;
+    }
+
+    public long getRecordedPayout() {
+        return recordedPayout;
+    }
+
+    public long getReplayedPayout() {
+        return replayedPayout;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import org.bson.types.Binary;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+/**
+ * Stores a {@link CardList} as a BSON binary holding one byte per card instead of an array of strings.
+ */
+public class CardListConverter implements MongoValueConverter<CardList, Object> {
+
+    @Override
+    public CardList read(Object value, MongoConversionContext context) {
+        if (value instanceof Binary binary) {
+            return CardList.fromBytes(binary.getData());
+        }
+        if (value instanceof byte[] bytes) {
+            return CardList.fromBytes(bytes);
+        }
+        throw new IllegalArgumentException("Cannot read cards from " + value.getClass().getName());
+    }
+
+    @Override
+    public Object write(CardList value, MongoConversionContext context) {
+        return new Binary(value.toByteArray());
+    }
+}
@@ -0,0 +1,88 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ArchivedGame;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import com.mongodb.client.result.DeleteResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finished games on their way out of the {@code games} collection, and the archive they are kept
+ * in until their retention runs out.
+ */
+@Component
+public class GameArchiveRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiveRepository.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration retention;
+
+    @Autowired
+    public GameArchiveRepository(ReactiveMongoTemplate mongoTemplate, BlackjackProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.retention = properties.getArchive().getRetention();
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        Mono<String> finishedGames = mongoTemplate.indexOps(Game.class)
+                .ensureIndex(new Index().on("gameState", Sort.Direction.ASC).on("finishedAt", Sort.Direction.ASC));
+        // Mongo removes archived games once their retention is over
+        Mono<String> expiry = retention.isZero() ? Mono.empty() : mongoTemplate.indexOps(ArchivedGame.class)
+                .ensureIndex(new Index().on("archivedAt", Sort.Direction.ASC).expire(retention));
+        finishedGames.then(expiry)
+                .subscribe(null, error -> log.warn("Game archive indexes could not be created: {}", error.getMessage()));
+    }
+
+    // Games without a finish time were settled before it was recorded, and are archived right away
+    public Flux<Game> findFinished(Instant finishedBefore, int limit) {
+        Query query = Query.query(Criteria.where("gameState").is(GameState.FINISHED)
+                        .orOperator(Criteria.where("finishedAt").lt(finishedBefore), Criteria.where("finishedAt").is(null)))
+                .limit(limit);
+        return mongoTemplate.find(query, Game.class);
+    }
+
+    /**
+     * Writes the games to the archive, replacing any copy a run that failed halfway already wrote,
+     * so archiving the same game twice is harmless.
+     */
+    public Mono<Void> archive(Collection<ArchivedGame> games) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedGame.class);
+        for (ArchivedGame game : games) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(game.getId())), game,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        return bulk.execute().then();
+    }
+
+    public Mono<Long> removeArchived(List<String> gameIds) {
+        Query query = Query.query(Criteria.where("_id").in(gameIds).and("gameState").is(GameState.FINISHED));
+        return mongoTemplate.remove(query, Game.class)
+                .map(DeleteResult::getDeletedCount);
+    }
+
+    public Mono<ArchivedGame> findById(String id) {
+        return mongoTemplate.findById(id, ArchivedGame.class);
+    }
+}
@@ -0,0 +1,92 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Game history entries, only ever inserted, and the snapshots they are replayed from.
+ */
+@Component
+public class GameHistoryRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(GameHistoryRepository.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public GameHistoryRepository(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        // The unique key makes a repeated append fail instead of duplicating a move
+        mongoTemplate.indexOps(GameHistoryEvent.class)
+                .ensureIndex(new Index().on("gameId", Sort.Direction.ASC).on("version", Sort.Direction.ASC)
+                        .on("seq", Sort.Direction.ASC).unique())
+                .then(mongoTemplate.indexOps(GameSnapshot.class)
+                        .ensureIndex(new Index().on("gameId", Sort.Direction.ASC).on("version", Sort.Direction.DESC)))
+                .subscribe(null, error -> log.warn("Game history indexes could not be created: {}", error.getMessage()));
+    }
+
+    public Mono<Void> append(Collection<GameHistoryEvent> events) {
+        return mongoTemplate.insertAll(events).then();
+    }
+
+    public Mono<Void> saveSnapshots(Collection<GameSnapshot> snapshots) {
+        return mongoTemplate.insertAll(snapshots).then();
+    }
+
+    public Mono<Void> saveSnapshot(GameSnapshot snapshot) {
+        // Keyed by game and version, so saving the same snapshot twice is harmless
+        return mongoTemplate.save(snapshot).then();
+    }
+
+    // Every snapshot and entry of the given games
+    public Mono<Void> deleteGames(Collection<String> gameIds) {
+        Query query = Query.query(Criteria.where("gameId").in(gameIds));
+        return mongoTemplate.remove(query, GameSnapshot.class)
+                .then(mongoTemplate.remove(query, GameHistoryEvent.class))
+                .then();
+    }
+
+    public Mono<GameSnapshot> findLatestSnapshot(String gameId) {
+        Query query = Query.query(Criteria.where("gameId").is(gameId))
+                .with(Sort.by(Sort.Direction.DESC, "version"))
+                .limit(1);
+        return mongoTemplate.findOne(query, GameSnapshot.class);
+    }
+
+    public Mono<GameSnapshot> findFirstSnapshot(String gameId) {
+        Query query = Query.query(Criteria.where("gameId").is(gameId))
+                .with(Sort.by(Sort.Direction.ASC, "version"))
+                .limit(1);
+        return mongoTemplate.findOne(query, GameSnapshot.class);
+    }
+
+    public Flux<GameHistoryEvent> findEvents(String gameId, long afterVersion) {
+        Query query = Query.query(Criteria.where("gameId").is(gameId).and("version").gt(afterVersion))
+                .with(Sort.by("version", "seq"));
+        return mongoTemplate.find(query, GameHistoryEvent.class);
+    }
+
+    public Flux<GameHistoryEvent> findEvents(String gameId) {
+        Query query = Query.query(Criteria.where("gameId").is(gameId))
+                .with(Sort.by("version", "seq"));
+        return mongoTemplate.find(query, GameHistoryEvent.class);
+    }
+}
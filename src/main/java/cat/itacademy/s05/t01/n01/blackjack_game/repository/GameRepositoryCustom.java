@@ -0,0 +1,36 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Targeted updates for moves, so a one-card change does not rewrite the whole game document, bulk
+ * inserts for tables opened together, and indexed listings of games.
+ */
+public interface GameRepositoryCustom {
+
+    Mono<Game> saveMove(Game game, PlayerState playerState);
+
+    Mono<Game> saveRoundEnd(Game game);
+
+    // Rewrites every seat, for a batch of moves by several players in the same round
+    Mono<Game> saveTable(Game game);
+
+    // Overwrites the stored document with an in-memory game that already carries its new version
+    Mono<Game> saveSnapshot(Game game);
+
+    // Inserts new games with a single bulk write
+    Flux<Game> insertAll(Collection<Game> games);
+
+    /**
+     * Up to {@code limit} games, newest first, starting after the cursor when there is one. The state
+     * and the player are optional filters. Only what a listing shows is read: no hands and no shoe.
+     */
+    Flux<Game> findPage(GameState state, String playerId, GameCursor after, int limit);
+}
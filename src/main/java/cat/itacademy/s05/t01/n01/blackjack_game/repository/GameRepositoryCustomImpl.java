@@ -0,0 +1,168 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class GameRepositoryCustomImpl implements GameRepositoryCustom {
+
+    private static final Logger log = LoggerFactory.getLogger(GameRepositoryCustomImpl.class);
+
+    // Listings are sorted on this key; the id breaks ties between games created in the same millisecond
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "_id");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public GameRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Every listing filter leads an index that ends with the sort key, so a page is read straight
+    // off the index from the cursor on, however many games come before it
+    @PostConstruct
+    public void createIndexes() {
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(Game.class);
+        indexOps.ensureIndex(newestFirst(new Index()))
+                .then(indexOps.ensureIndex(newestFirst(new Index().on("gameState", Sort.Direction.ASC))))
+                .then(indexOps.ensureIndex(newestFirst(new Index().on("playersState.playerId", Sort.Direction.ASC))))
+                .subscribe(null, error -> log.warn("Game listing indexes could not be created: {}", error.getMessage()));
+    }
+
+    private static Index newestFirst(Index index) {
+        return index.on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC);
+    }
+
+    @Override
+    public Mono<Game> saveMove(Game game, PlayerState playerState) {
+        Query query = Query.query(Criteria.where("_id").is(game.getId())
+                .and("version").is(game.getVersion())
+                .and("playersState.playerId").is(playerState.getPlayerId()));
+        return execute(game, query, moveUpdate(game, playerState));
+    }
+
+    @Override
+    public Mono<Game> saveRoundEnd(Game game) {
+        Query query = Query.query(Criteria.where("_id").is(game.getId())
+                .and("version").is(game.getVersion()));
+        return execute(game, query, roundEndUpdate(game));
+    }
+
+    @Override
+    public Mono<Game> saveTable(Game game) {
+        Query query = Query.query(Criteria.where("_id").is(game.getId())
+                .and("version").is(game.getVersion()));
+        // The round-end update already covers every seat, the dealer and the game state
+        return execute(game, query, roundEndUpdate(game));
+    }
+
+    @Override
+    public Mono<Game> saveSnapshot(Game game) {
+        // Only ever moves the stored game forward, so a delayed write cannot overwrite a newer one
+        Query query = Query.query(Criteria.where("_id").is(game.getId())
+                .orOperator(Criteria.where("version").lt(game.getVersion()), Criteria.where("version").exists(false)));
+        return mongoTemplate.replace(query, game).thenReturn(game);
+    }
+
+    @Override
+    public Flux<Game> insertAll(Collection<Game> games) {
+        return mongoTemplate.insertAll(games);
+    }
+
+    @Override
+    public Flux<Game> findPage(GameState state, String playerId, GameCursor after, int limit) {
+        return mongoTemplate.find(pageQuery(state, playerId, after, limit), Game.class);
+    }
+
+    static Query pageQuery(GameState state, String playerId, GameCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (state != null) {
+            criteria.add(Criteria.where("gameState").is(state));
+        }
+        if (playerId != null) {
+            criteria.add(Criteria.where("playersState.playerId").is(playerId));
+        }
+        if (after != null) {
+            criteria.add(after(after));
+        }
+        Query query = criteria.isEmpty() ? new Query() : Query.query(new Criteria().andOperator(criteria));
+        query.fields().include("gameState", "createdAt", "finishedAt", "playersState.playerId");
+        return query.with(NEWEST_FIRST).limit(limit);
+    }
+
+    // Games sorting after the cursor. Games without a creation time sort last, in id order.
+    private static Criteria after(GameCursor cursor) {
+        if (cursor.getCreatedAt() == null) {
+            return Criteria.where("createdAt").is(null).and("_id").lt(cursor.getId());
+        }
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cursor.getCreatedAt()),
+                Criteria.where("createdAt").is(cursor.getCreatedAt()).and("_id").lt(cursor.getId()),
+                Criteria.where("createdAt").is(null));
+    }
+
+    // The caller already holds the new state, so a plain update is enough: unlike findAndModify it
+    // does not ship the whole document back over the wire. The game was loaded just before the move,
+    // so matching nothing means another move bumped the version in between.
+    private Mono<Game> execute(Game game, Query query, Update update) {
+        return mongoTemplate.updateFirst(query, update.inc("version", 1), Game.class)
+                .flatMap(result -> {
+                    if (result.getMatchedCount() == 0) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Game " + game.getId() + " was modified by a concurrent move"));
+                    }
+                    game.setVersion(game.getVersion() == null ? 1 : game.getVersion() + 1);
+                    game.getDeck().clearPendingDeals();
+                    game.clearShoeReplaced();
+                    return Mono.just(game);
+                });
+    }
+
+    static Update moveUpdate(Game game, PlayerState playerState) {
+        return shoeUpdate(game)
+                .set("playersState.$.hand", playerState.getPlayerHand())
+                .set("playersState.$.score", playerState.getScore())
+                .set("playersState.$.hardTotal", playerState.getHardTotal())
+                .set("playersState.$.aces", playerState.getAces())
+                .set("playersState.$.action", playerState.getAction())
+                .set("playersState.$.bet", playerState.getBet());
+    }
+
+    static Update roundEndUpdate(Game game) {
+        return shoeUpdate(game)
+                .set("playersState", game.getPlayersState())
+                .set("dealerHand", game.getDealerHand())
+                .set("dealerScore", game.getDealerScore())
+                .set("dealerHardTotal", game.getDealerHardTotal())
+                .set("dealerAces", game.getDealerAces())
+                .set("gameState", game.getGameState())
+                .set("finishedAt", game.getFinishedAt());
+    }
+
+    private static Update shoeUpdate(Game game) {
+        Update update = new Update();
+        if (game.isShoeReplaced()) {
+            update.set("deck", game.getDeck());
+        } else if (game.getDeck().getPendingDeals() > 0) {
+            update.inc("deck.cursor", game.getDeck().getPendingDeals());
+        }
+        return update;
+    }
+}
@@ -0,0 +1,220 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of ongoing games in front of {@link GameRepository}.
+ * <p>
+ * The cache holds the last committed state of every game and hands out copies, so a move works on
+ * its own instance and only replaces the cached game once it is committed. In write-through mode a
+ * move is committed when Mongo accepts it. In write-behind mode it is committed to the cache alone
+ * and dirty games are flushed periodically, so several moves on a game cost a single write.
+ * Finished games are written straight away and evicted.
+ * <p>
+ * The cached games are the ongoing games played recently, and are published as the
+ * {@code blackjack.games.active} gauge.
+ */
+@Component
+public class GameStore implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(GameStore.class);
+
+    private final GameRepository gameRepository;
+    private final BlackjackProperties.Cache properties;
+    private final Cache<String, Game> games;
+    // Committed games not written to Mongo yet (write-behind only). They are kept here even when
+    // the cache evicts them, so reads never fall back to a stale document.
+    private final Map<String, Game> dirtyGames = new ConcurrentHashMap<>();
+    private Disposable flusher;
+
+    @Autowired
+    public GameStore(GameRepository gameRepository, BlackjackProperties properties) {
+        this.gameRepository = gameRepository;
+        this.properties = properties.getCache();
+        this.games = Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaximumSize())
+                .expireAfterAccess(this.properties.getExpireAfterAccess())
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (isWriteBehind()) {
+            flusher = Flux.interval(properties.getFlushInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> flush())
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().block(properties.getShutdownTimeout());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("blackjack.games.active", games, Cache::estimatedSize)
+                .description("Ongoing games held in the cache")
+                .register(registry);
+        Gauge.builder("blackjack.games.dirty", dirtyGames, Map::size)
+                .description("Games committed to the cache and not written to Mongo yet")
+                .register(registry);
+    }
+
+    public Mono<Game> findById(String id) {
+        Game cached = games.getIfPresent(id);
+        if (cached == null) {
+            cached = dirtyGames.get(id);
+        }
+        if (cached != null) {
+            return Mono.just(cached.copy());
+        }
+        return gameRepository.findById(id)
+                .map(game -> game.getGameState() == GameState.ONGOING ? cache(game).copy() : game);
+    }
+
+    // Listings are read from Mongo: they only show fields set when a game opens or finishes, and
+    // both are written straight away in either mode
+    public Flux<Game> findPage(GameState state, String playerId, GameCursor after, int limit) {
+        return gameRepository.findPage(state, playerId, after, limit);
+    }
+
+    public Mono<Game> save(Game game) {
+        return gameRepository.save(game)
+                .doOnNext(this::stored);
+    }
+
+    public Flux<Game> insertAll(List<Game> newGames) {
+        return gameRepository.insertAll(newGames)
+                .doOnNext(this::stored);
+    }
+
+    public Mono<Game> saveMove(Game game, PlayerState playerState) {
+        if (isWriteBehind()) {
+            return Mono.fromCallable(() -> commit(game));
+        }
+        return gameRepository.saveMove(game, playerState)
+                .doOnNext(this::cache)
+                .doOnError(OptimisticLockingFailureException.class, error -> games.invalidate(game.getId()));
+    }
+
+    // Moves by several players of the same round, written together
+    public Mono<Game> saveTable(Game game) {
+        if (isWriteBehind()) {
+            return Mono.fromCallable(() -> commit(game));
+        }
+        return gameRepository.saveTable(game)
+                .doOnNext(this::cache)
+                .doOnError(OptimisticLockingFailureException.class, error -> games.invalidate(game.getId()));
+    }
+
+    public Mono<Game> saveRoundEnd(Game game) {
+        if (isWriteBehind()) {
+            return Mono.fromCallable(() -> commit(game))
+                    .flatMap(this::write)
+                    .doOnNext(saved -> games.invalidate(saved.getId()));
+        }
+        return gameRepository.saveRoundEnd(game)
+                .doOnNext(saved -> games.invalidate(saved.getId()))
+                .doOnError(OptimisticLockingFailureException.class, error -> games.invalidate(game.getId()));
+    }
+
+    public Mono<Void> delete(Game game) {
+        games.invalidate(game.getId());
+        dirtyGames.remove(game.getId());
+        return gameRepository.delete(game);
+    }
+
+    // Deleting by id, so games that were never written are skipped
+    public Mono<Void> deleteAll(List<String> ids) {
+        games.invalidateAll(ids);
+        ids.forEach(dirtyGames::remove);
+        return gameRepository.deleteAllById(ids);
+    }
+
+    /**
+     * Writes every dirty game to Mongo. Games that fail to save stay dirty for the next flush.
+     */
+    public Mono<Void> flush() {
+        return Flux.fromIterable(dirtyGames.values())
+                .flatMap(this::write)
+                .then();
+    }
+
+    private Mono<Game> write(Game game) {
+        return gameRepository.saveSnapshot(game)
+                .doOnNext(saved -> dirtyGames.remove(saved.getId(), saved))
+                .onErrorResume(error -> {
+                    log.warn("game={} could not be flushed, will retry: {}", game.getId(), error.getMessage());
+                    return Mono.just(game);
+                });
+    }
+
+    private void stored(Game saved) {
+        saved.getDeck().clearPendingDeals();
+        saved.clearShoeReplaced();
+        if (saved.getGameState() == GameState.ONGOING) {
+            cache(saved);
+        }
+    }
+
+    // Write-behind: the move must have started from the game currently cached, exactly as the
+    // version check does in Mongo for write-through
+    private Game commit(Game game) {
+        Long expectedVersion = game.getVersion();
+        games.asMap().compute(game.getId(), (id, current) -> {
+            Game latest = current != null ? current : dirtyGames.get(id);
+            if (latest == null || !Objects.equals(expectedVersion, latest.getVersion())) {
+                throw new OptimisticLockingFailureException("Game " + id + " was modified by a concurrent move");
+            }
+            game.setVersion(expectedVersion == null ? 1 : expectedVersion + 1);
+            game.getDeck().clearPendingDeals();
+            game.clearShoeReplaced();
+            dirtyGames.put(id, game);
+            return game;
+        });
+        return game;
+    }
+
+    // Keeps whichever instance is newer, so a late load or save never replaces a later commit
+    private Game cache(Game game) {
+        return games.asMap().merge(game.getId(), game,
+                (current, candidate) -> version(candidate) > version(current) ? candidate : current);
+    }
+
+    private static long version(Game game) {
+        return game.getVersion() == null ? -1 : game.getVersion();
+    }
+
+    private boolean isWriteBehind() {
+        return properties.getWriteMode() == BlackjackProperties.Cache.WriteMode.WRITE_BEHIND;
+    }
+}
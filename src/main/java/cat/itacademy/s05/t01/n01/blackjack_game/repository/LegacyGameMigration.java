@@ -0,0 +1,121 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites the games stored before cards were kept as bytes. Their hands and deck are arrays of
+ * card labels, the hands have no hard total or ace count and the game has no version, so they
+ * can neither be read nor saved as they are. Each is rewritten in place once, when the
+ * application starts: the deck becomes a shoe holding the cards left, with the cut card at its
+ * end, and the version starts at 0.
+ */
+@Component
+public class LegacyGameMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyGameMigration.class);
+
+    // BSON type of arrays: hands are written as binary now, so a dealer hand that is still an
+    // array marks a legacy game
+    private static final int ARRAY = 4;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public LegacyGameMigration(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        run().subscribe(games -> {
+            if (games > 0) {
+                log.info("Migrated {} legacy games", games);
+            }
+        }, error -> log.warn("Legacy games could not be migrated: {}", error.getMessage()));
+    }
+
+    Mono<Long> run() {
+        String collection = mongoTemplate.getCollectionName(Game.class);
+        return mongoTemplate.find(Query.query(Criteria.where("dealerHand").type(ARRAY)), Document.class, collection)
+                .concatMap(legacy -> mongoTemplate.updateFirst(
+                        // Only while it is still legacy, so two instances starting together rewrite it once
+                        Query.query(Criteria.where("_id").is(legacy.get("_id")).and("dealerHand").type(ARRAY)),
+                        migration(legacy), collection))
+                .reduce(0L, (games, result) -> games + result.getModifiedCount());
+    }
+
+    static Update migration(Document legacy) {
+        Update update = new Update();
+        List<Document> playersState = new ArrayList<>();
+        for (Document playerState : legacy.getList("playersState", Document.class, List.of())) {
+            Document migrated = new Document(playerState);
+            Cards hand = new Cards(playerState.getList("hand", String.class, List.of()));
+            migrated.put("hand", hand.binary());
+            migrated.put("score", hand.score());
+            migrated.put("hardTotal", hand.hardTotal);
+            migrated.put("aces", hand.aces);
+            playersState.add(migrated);
+        }
+        update.set("playersState", playersState);
+
+        Cards dealerHand = new Cards(legacy.getList("dealerHand", String.class, List.of()));
+        update.set("dealerHand", dealerHand.binary());
+        update.set("dealerScore", dealerHand.score());
+        update.set("dealerHardTotal", dealerHand.hardTotal);
+        update.set("dealerAces", dealerHand.aces);
+
+        Cards deck = new Cards(legacy.getList("deck", String.class, List.of()));
+        update.set("deck", new Document("cards", deck.binary())
+                .append("cursor", 0)
+                .append("cutCard", deck.codes.length));
+
+        if (!legacy.containsKey("version")) {
+            update.set("version", 0L);
+        }
+        return update;
+    }
+
+    private static final class Cards {
+        private final byte[] codes;
+        private int hardTotal;
+        private int aces;
+
+        private Cards(List<String> labels) {
+            codes = new byte[labels.size()];
+            for (int i = 0; i < codes.length; i++) {
+                Card card = Card.parse(labels.get(i));
+                codes[i] = card.getCode();
+                hardTotal += card.getHardValue();
+                if (card.isAce()) {
+                    aces++;
+                }
+            }
+        }
+
+        private Binary binary() {
+            return new Binary(codes);
+        }
+
+        private int score() {
+            return CardUtils.handValue(hardTotal, aces);
+        }
+    }
+}
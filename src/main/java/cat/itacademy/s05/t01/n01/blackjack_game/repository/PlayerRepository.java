@@ -1,7 +1,30 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.repository;
 
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface PlayerRepository extends ReactiveCrudRepository<Player, String> {
+import java.util.Collection;
+import java.util.Objects;
+
+public interface PlayerRepository extends ReactiveCrudRepository<Player, Long>, PlayerRepositoryCustom {
+
+    // Looks players up by the string ids the rest of the application uses; an id that is not a
+    // number matches no player instead of failing the query
+    default Mono<Player> findPlayer(String id) {
+        Long key = Player.toKey(id);
+        return key == null ? Mono.empty() : findById(key);
+    }
+
+    default Flux<Player> findPlayers(Collection<String> ids) {
+        return findAllById(ids.stream().map(Player::toKey).filter(Objects::nonNull).toList());
+    }
+
+    // Both queries are served by the idx_players_score index
+    @Query("SELECT * FROM players ORDER BY score DESC, id LIMIT :limit OFFSET :offset")
+    Flux<Player> findRankingPage(int limit, long offset);
+
+    Mono<Long> countByScoreGreaterThan(int score);
 }
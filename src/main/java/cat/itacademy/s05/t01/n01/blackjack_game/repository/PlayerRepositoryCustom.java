@@ -0,0 +1,20 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Applies settled rounds to many players in one statement instead of one update per player, and
+ * inserts many players in one batch.
+ */
+public interface PlayerRepositoryCustom {
+
+    Mono<Long> applyScoreDeltas(List<ScoreDelta> deltas);
+
+    // Emits the players in the given order, each with its generated id
+    Flux<Player> insertAll(List<Player> players);
+}
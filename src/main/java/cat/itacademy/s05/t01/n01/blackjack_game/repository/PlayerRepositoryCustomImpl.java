@@ -0,0 +1,83 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    static final String INSERT_PLAYER_SQL = "INSERT INTO players (name, score, total_wins, total_losses) VALUES (?, ?, 0, 0)";
+
+    private final DatabaseClient databaseClient;
+
+    public PlayerRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Long> applyScoreDeltas(List<ScoreDelta> deltas) {
+        // A delta for an id that cannot belong to a player would update no row, so it is left out
+        // instead of failing the deltas of the players it is batched with
+        List<ScoreDelta> playerDeltas = deltas.stream()
+                .filter(delta -> Player.toKey(delta.getPlayerId()) != null)
+                .toList();
+        if (playerDeltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(scoreDeltaSql(playerDeltas.size()));
+        for (int i = 0; i < playerDeltas.size(); i++) {
+            ScoreDelta delta = playerDeltas.get(i);
+            spec = spec.bind("id" + i, Player.toKey(delta.getPlayerId()))
+                    .bind("score" + i, delta.getScore())
+                    .bind("wins" + i, delta.getWins())
+                    .bind("losses" + i, delta.getLosses());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    @Override
+    public Flux<Player> insertAll(List<Player> players) {
+        if (players.isEmpty()) {
+            return Flux.empty();
+        }
+        // One statement with a binding per player: the driver sends the whole batch on one
+        // connection and answers with one result, carrying the generated id, per binding
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_PLAYER_SQL).returnGeneratedValues("id");
+            for (int i = 0; i < players.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                statement.bind(0, players.get(i).getName())
+                        .bind(1, players.get(i).getScore());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get("id", Long.class)))
+                    .zipWithIterable(players, (id, player) -> {
+                        player.setId(String.valueOf(id));
+                        return player;
+                    });
+        });
+    }
+
+    // UPDATE players SET score = score + CASE id WHEN :id0 THEN :score0 ... END, ... WHERE id IN (:id0, ...)
+    static String scoreDeltaSql(int rows) {
+        StringBuilder score = new StringBuilder("score = score + CASE id");
+        StringBuilder wins = new StringBuilder("total_wins = total_wins + CASE id");
+        StringBuilder losses = new StringBuilder("total_losses = total_losses + CASE id");
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            score.append(" WHEN :id").append(i).append(" THEN :score").append(i);
+            wins.append(" WHEN :id").append(i).append(" THEN :wins").append(i);
+            losses.append(" WHEN :id").append(i).append(" THEN :losses").append(i);
+            ids.append(i == 0 ? "" : ", ").append(":id").append(i);
+        }
+        return "UPDATE players SET " + score + " ELSE 0 END, " + wins + " ELSE 0 END, " + losses + " ELSE 0 END"
+                + " WHERE id IN (" + ids + ")";
+    }
+}
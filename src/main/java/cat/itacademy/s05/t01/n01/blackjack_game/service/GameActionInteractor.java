@@ -1,225 +1,307 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.service;
 
-import cat.itacademy.s05.t01.n01.blackjack_game.exception.DeckEmptyException;
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.GameAlreadyFinishedException;
+import cat.itacademy.s05.t01.n01.blackjack_game.exception.InvalidMoveException;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.PlayerNotFoundException;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.StateNotAllowedException;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
-import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameRepository;
-import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.BlackjackRules;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.SettlementUtils;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class GameActionInteractor {
 
-    private final GameRepository gameRepository;
+    private static final Logger log = LoggerFactory.getLogger(GameActionInteractor.class);
+
+    private final GameStore gameStore;
+    private final SettlementWriter settlementWriter;
+    private final GameEventBroker gameEventBroker;
+    private final GameHistory gameHistory;
+    private final Shuffler shuffler;
+    private final ShoeCounter shoeCounter;
+    private final ObservationRegistry observationRegistry;
+    private final BlackjackProperties.Shoe shoeProperties;
+    private final int baseBet;
 
     @Autowired
-    public GameActionInteractor(GameRepository gameRepository) {
-        this.gameRepository = gameRepository;
+    public GameActionInteractor(GameStore gameStore, SettlementWriter settlementWriter, GameEventBroker gameEventBroker,
+                                GameHistory gameHistory, Shuffler shuffler, ShoeCounter shoeCounter,
+                                ObservationRegistry observationRegistry, BlackjackProperties properties) {
+        this.gameStore = gameStore;
+        this.settlementWriter = settlementWriter;
+        this.gameEventBroker = gameEventBroker;
+        this.gameHistory = gameHistory;
+        this.shuffler = shuffler;
+        this.shoeCounter = shoeCounter;
+        this.observationRegistry = observationRegistry;
+        this.shoeProperties = properties.getShoe();
+        this.baseBet = properties.getSettlement().getBaseBet();
     }
 
     public void initializeGame(Game game) {
-        List<String> deck = CardUtils.createShuffledDeck(6); // Use 6 decks shuffled together
-        game.setDeck(deck);
+        game.setDeck(newShoe(null));
+        if (game.getPlayersState() != null) {
+            game.getPlayersState().forEach(playerState -> playerState.setBet(baseBet));
+        }
     }
 
-    public Mono<String> dealCard(Game game) {
-        if (game.getDeck().isEmpty()) {
-            return Mono.error(new DeckEmptyException());
+    // Two cards to every player, then two to the dealer, without going through a Mono per card
+    public void dealOpeningHands(Game game) {
+        for (PlayerState playerState : game.getPlayersState()) {
+            for (int i = 0; i < 2; i++) {
+                Card card = drawCard(game);
+                playerState.addCard(card);
+                game.recordHistory(GameHistoryEvent.cardDealt(playerState.getPlayerId(), card));
+            }
+        }
+        for (int i = 0; i < 2; i++) {
+            Card card = drawCard(game);
+            game.addDealerCard(card);
+            game.recordHistory(GameHistoryEvent.dealerDrew(card));
         }
-        return Mono.just(game.getDeck().remove(0));
-    }
-
-    public Mono<Game> hit(String gameId, String playerId) {
-        return gameRepository.findById(gameId)
-                .flatMap(game -> {
-                    if (game.getGameState() == GameState.FINISHED) {
-                        return Mono.error(new GameAlreadyFinishedException());
-                    }
-
-                    return Mono.justOrEmpty(game.getPlayersState().stream()
-                                    .filter(ps -> ps.getPlayerId().equals(playerId))
-                                    .findFirst())
-                            .flatMap(playerState -> {
-                                if (playerState.getAction() != PlayerAction.PLAYING) {
-                                    return Mono.error(new StateNotAllowedException("Player cannot hit in current state"));
-                                }
-
-                                return dealCard(game)
-                                        .flatMap(card -> {
-                                            playerState.getPlayerHand().add(card);
-                                            playerState.setScore(CardUtils.calculateHandValue(playerState.getPlayerHand()));
-                                            System.out.println("Player " + playerId + " hit and received: " + card + ". New score: " + playerState.getScore());
-
-                                            if (playerState.getScore() > 21) {
-                                                playerState.setAction(PlayerAction.BUSTED);
-                                                System.out.println("Player " + playerId + " has busted.");
-                                                // Check if all players are busted after this hit
-                                                return finishGame(game);
-                                            }
-
-                                            return gameRepository.save(game);
-                                        });
-                            })
-                            .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
-                });
-    }
-
-    public Mono<Game> stand(String gameId, String playerId) {
-        return gameRepository.findById(gameId)
-                .flatMap(game -> {
-                    if (game.getGameState() == GameState.FINISHED) {
-                        return Mono.error(new GameAlreadyFinishedException());
-                    }
-
-                    return Mono.justOrEmpty(game.getPlayersState().stream()
-                                    .filter(ps -> ps.getPlayerId().equals(playerId))
-                                    .findFirst())
-                            .flatMap(playerState -> {
-                                if (playerState.getAction() != PlayerAction.PLAYING) {
-                                    return Mono.error(new StateNotAllowedException("Player cannot stand in current state"));
-                                }
-
-                                playerState.setAction(PlayerAction.STANDING);
-                                System.out.println("Player " + playerId + " has stood.");
-
-                                // Check if all players have finished their actions
-                                if (game.getPlayersState().stream()
-                                        .allMatch(ps -> ps.getAction() != PlayerAction.PLAYING)) {
-                                    System.out.println("All players have finished their actions. Finishing game...");
-                                    return finishGame(game);
-                                }
-
-                                return gameRepository.save(game);
-                            })
-                            .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
-                });
-    }
-
-    public Mono<Game> doubleDown(String gameId, String playerId, int amountBet) {
-        return gameRepository.findById(gameId)
-                .flatMap(game -> {
-                    if (game.getGameState() == GameState.FINISHED) {
-                        return Mono.error(new GameAlreadyFinishedException());
-                    }
-
-                    return Mono.justOrEmpty(game.getPlayersState().stream()
-                                    .filter(ps -> ps.getPlayerId().equals(playerId))
-                                    .findFirst())
-                            .flatMap(playerState -> {
-                                if (playerState.getAction() != PlayerAction.PLAYING) {
-                                    return Mono.error(new StateNotAllowedException("Player cannot double down in current state"));
-                                }
-
-                                return dealCard(game)
-                                        .flatMap(card -> {
-                                            playerState.getPlayerHand().add(card);
-                                            playerState.setScore(CardUtils.calculateHandValue(playerState.getPlayerHand()));
-
-                                            System.out.println("Player " + playerId + " doubled down and received: " + card + ". New score: " + playerState.getScore());
-
-                                            if (playerState.getScore() > 21) {
-                                                playerState.setAction(PlayerAction.BUSTED);
-                                                System.out.println("Player " + playerId + " has busted.");
-                                                // Check if all players are busted after this action
-                                                return finishGame(game);
-                                            } else {
-                                                playerState.setAction(PlayerAction.DOUBLED_DOWN);
-                                            }
-
-                                            return gameRepository.save(game);
-                                        });
-                            })
-                            .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
-                });
-    }
-
-    public Mono<Game> surrender(String gameId, String playerId) {
-        return gameRepository.findById(gameId)
-                .flatMap(game -> {
-                    if (game.getGameState() == GameState.FINISHED) {
-                        return Mono.error(new GameAlreadyFinishedException());
-                    }
-
-                    return Mono.justOrEmpty(game.getPlayersState().stream()
-                                    .filter(ps -> ps.getPlayerId().equals(playerId))
-                                    .findFirst())
-                            .flatMap(playerState -> {
-                                if (playerState.getAction() != PlayerAction.PLAYING) {
-                                    return Mono.error(new StateNotAllowedException("Player cannot surrender in current state"));
-                                }
-
-                                playerState.setAction(PlayerAction.SURRENDERED);
-                                System.out.println("Player " + playerId + " has surrendered.");
-
-                                // Check if all players have finished their actions
-                                if (game.getPlayersState().stream()
-                                        .allMatch(ps -> ps.getAction() != PlayerAction.PLAYING)) {
-                                    return finishGame(game);
-                                }
-
-                                return gameRepository.save(game);
-                            })
-                            .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
-                });
     }
 
-    public Mono<Game> finishGame(Game game) {
-        System.out.println("Finishing game...");
+    // Games are also saved outside this class when they are opened; their deal counts from then
+    public void recordSaved(Game saved) {
+        shoeCounter.recordSaved(saved);
+    }
 
-        // Check if all players are busted
-        boolean allPlayersBusted = game.getPlayersState().stream()
-                .allMatch(playerState -> playerState.getAction() == PlayerAction.BUSTED);
+    public Mono<Card> dealCard(Game game) {
+        return Mono.fromCallable(() -> drawCard(game));
+    }
 
-        if (allPlayersBusted) {
-            System.out.println("All players are busted. The dealer wins!");
-            game.setGameState(GameState.FINISHED);
-            return gameRepository.save(game);
+    private Card drawCard(Game game) {
+        if (game.getDeck().isCutCardReached()) {
+            reshuffle(game);
         }
+        game.recordCardDealt();
+        return game.getDeck().deal();
+    }
 
-        return Mono.fromCallable(() -> {
-            while (game.getDealerScore() < 17) {
-                if (game.getDeck().isEmpty()) {
-                    System.out.println("Deck is empty during dealer's turn. Ending the game.");
-                    game.setGameState(GameState.FINISHED);
-                    return game;
-                }
+    // Rebuilds the shoe from every card that is not currently on the table
+    private void reshuffle(Game game) {
+        CardList cardsInPlay = new CardList();
+        if (game.getDealerHand() != null) {
+            cardsInPlay.addAll(game.getDealerHand());
+        }
+        if (game.getPlayersState() != null) {
+            game.getPlayersState().forEach(ps -> cardsInPlay.addAll(ps.getPlayerHand()));
+        }
+        log.debug("game={} cut card reached, reshuffling the shoe", game.getId());
+        game.recordShoeExhausted();
+        game.replaceDeck(newShoe(cardsInPlay));
+        game.recordHistory(GameHistoryEvent.shoeShuffled(game.getDeck()));
+    }
 
-                String card = game.getDeck().remove(0);
-                game.getDealerHand().add(card);
-                game.setDealerScore(CardUtils.calculateHandValue(game.getDealerHand()));
-                System.out.println("Dealer drew a card: " + card + ", new score: " + game.getDealerScore());
-            }
+    private Shoe newShoe(CardList cardsInPlay) {
+        return shuffler.newShoe(shoeProperties.getDecks(), cardsInPlay, shoeProperties::cutCardPosition);
+    }
 
-            for (PlayerState playerState : game.getPlayersState()) {
-                System.out.println("Processing PlayerState: " + playerState);
-                if (playerState.getAction() == PlayerAction.SURRENDERED) {
-                    continue;
-                }
+    public Mono<Game> hit(Game game, String playerId) {
+        return play(game, playerId, PlayerAction.HIT, 0);
+    }
+
+    public Mono<Game> stand(Game game, String playerId) {
+        return play(game, playerId, PlayerAction.STANDING, 0);
+    }
+
+    public Mono<Game> doubleDown(Game game, String playerId, int amountBet) {
+        return play(game, playerId, PlayerAction.DOUBLED_DOWN, amountBet);
+    }
+
+    public Mono<Game> surrender(Game game, String playerId) {
+        return play(game, playerId, PlayerAction.SURRENDERED, 0);
+    }
+
+    private Mono<Game> play(Game game, String playerId, PlayerAction playerAction, int amountBet) {
+        return Mono.fromCallable(() -> applyMove(game, playerId, playerAction, amountBet))
+                .flatMap(playerState -> saveMoves(game, List.of(playerState)));
+    }
+
+    /**
+     * Applies a move to the game in memory, finishing the round when it ends, without saving it.
+     * Nothing is changed when the move is rejected. Returns the state of the player who moved.
+     */
+    public PlayerState applyMove(Game game, String playerId, PlayerAction playerAction, int amountBet) {
+        if (game.getGameState() == GameState.FINISHED) {
+            throw new GameAlreadyFinishedException();
+        }
 
-                if (playerState.getAction() != PlayerAction.BUSTED) {
-                    if (playerState.getScore() > game.getDealerScore() || game.getDealerScore() > 21) {
-                        System.out.println("Player " + playerState.getPlayerId() + " wins!");
-                    } else if (playerState.getScore() == game.getDealerScore()) {
-                        System.out.println("Player " + playerState.getPlayerId() + " ties with the dealer!");
-                    } else {
-                        System.out.println("Dealer wins against player " + playerState.getPlayerId() + "!");
-                    }
+        PlayerState playerState = game.getPlayersState().stream()
+                .filter(ps -> ps.getPlayerId().equals(playerId))
+                .findFirst()
+                .orElseThrow(PlayerNotFoundException::new);
+
+        switch (playerAction) {
+            case HIT:
+                checkPlaying(playerState, "hit");
+                game.recordHistory(GameHistoryEvent.actionTaken(playerId, playerAction, amountBet));
+                Card card = drawCard(game);
+                playerState.addCard(card);
+                game.recordHistory(GameHistoryEvent.cardDealt(playerId, card));
+                game.recordEvent(GameEvent.cardDealt(game.getId(), playerId, card, playerState.getScore()));
+                log.debug("game={} player={} hit card={} score={}", game.getId(), playerId, card, playerState.getScore());
+
+                if (playerState.isBust()) {
+                    changeAction(game, playerState, PlayerAction.BUSTED);
+                    log.debug("game={} player={} busted", game.getId(), playerId);
+                    // Check if all players are busted after this hit
+                    finishRound(game);
                 }
-            }
+                break;
+            case STANDING:
+                checkPlaying(playerState, "stand");
+                game.recordHistory(GameHistoryEvent.actionTaken(playerId, playerAction, amountBet));
+                changeAction(game, playerState, PlayerAction.STANDING);
+                log.debug("game={} player={} stood", game.getId(), playerId);
+                finishRoundIfAllDone(game);
+                break;
+            case DOUBLED_DOWN:
+                checkPlaying(playerState, "double down");
+                game.recordHistory(GameHistoryEvent.actionTaken(playerId, playerAction, amountBet));
+                playerState.setBet(BlackjackRules.doubledBet(playerState.getBet(), amountBet));
+
+                Card doubledCard = drawCard(game);
+                playerState.addCard(doubledCard);
+                game.recordHistory(GameHistoryEvent.cardDealt(playerId, doubledCard));
+                game.recordEvent(GameEvent.cardDealt(game.getId(), playerId, doubledCard, playerState.getScore()));
+                log.debug("game={} player={} doubled down card={} score={}", game.getId(), playerId, doubledCard, playerState.getScore());
+
+                if (playerState.isBust()) {
+                    changeAction(game, playerState, PlayerAction.BUSTED);
+                    log.debug("game={} player={} busted", game.getId(), playerId);
+                    // Check if all players are busted after this action
+                    finishRound(game);
+                } else {
+                    changeAction(game, playerState, PlayerAction.DOUBLED_DOWN);
+                }
+                break;
+            case SURRENDERED:
+                checkPlaying(playerState, "surrender");
+                game.recordHistory(GameHistoryEvent.actionTaken(playerId, playerAction, amountBet));
+                changeAction(game, playerState, PlayerAction.SURRENDERED);
+                log.debug("game={} player={} surrendered", game.getId(), playerId);
+                finishRoundIfAllDone(game);
+                break;
+            default:
+                throw new InvalidMoveException("Invalid move type: " + playerAction);
+        }
+        return playerState;
+    }
 
-            game.setGameState(GameState.FINISHED);
-            System.out.println("Game finished: " + game);
+    /**
+     * Saves the moves applied to the game: a finished round is written whole and settled, otherwise
+     * only the seats of the players who moved are written.
+     */
+    public Mono<Game> saveMoves(Game game, List<PlayerState> movedPlayers) {
+        Mono<Game> saved;
+        String write;
+        if (game.getGameState() == GameState.FINISHED) {
+            saved = gameStore.saveRoundEnd(game)
+                    .doOnNext(settlementWriter::settle);
+            write = "round-end";
+        } else if (movedPlayers.size() == 1) {
+            saved = gameStore.saveMove(game, movedPlayers.getFirst());
+            write = "move";
+        } else {
+            saved = gameStore.saveTable(game);
+            write = "table";
+        }
+        // Subscribers and the history only hear about changes that were saved; a move replayed
+        // after a conflict starts from a fresh copy and records its events again
+        return saved.name("blackjack.game.save")
+                .tag("write", write)
+                .tap(Micrometer.observation(observationRegistry))
+                .doOnNext(shoeCounter::recordSaved)
+                .flatMap(gameHistory::record)
+                .doOnNext(gameEventBroker::publish);
+    }
+
+    private static void changeAction(Game game, PlayerState playerState, PlayerAction action) {
+        playerState.setAction(action);
+        game.recordEvent(GameEvent.actionChanged(game.getId(), playerState.getPlayerId(), action));
+    }
 
+    private static void checkPlaying(PlayerState playerState, String move) {
+        if (playerState.getAction() != PlayerAction.PLAYING) {
+            throw new StateNotAllowedException("Player cannot " + move + " in current state");
+        }
+    }
+
+    // Check if all players have finished their actions
+    private void finishRoundIfAllDone(Game game) {
+        if (game.getPlayersState().stream()
+                .allMatch(ps -> ps.getAction() != PlayerAction.PLAYING)) {
+            finishRound(game);
+        }
+    }
+
+    public Mono<Game> finishGame(Game game) {
+        return Mono.fromCallable(() -> {
+            finishRound(game);
             return game;
-        }).flatMap(gameRepository::save);
+        }).flatMap(finished -> saveMoves(finished, List.of()));
+    }
+
+    private void finishRound(Game game) {
+        // Check if all players are busted
+        boolean allPlayersBusted = game.getPlayersState().stream()
+                .allMatch(playerState -> playerState.getAction() == PlayerAction.BUSTED);
+
+        if (allPlayersBusted) {
+            log.info("game={} finished, all players busted", game.getId());
+            recordPayouts(game);
+            return;
+        }
+
+        while (BlackjackRules.dealerDraws(game.getDealerHardTotal(), game.getDealerAces())) {
+            Card card = drawCard(game);
+            game.addDealerCard(card);
+            game.recordEvent(GameEvent.cardDealt(game.getId(), null, card, game.getDealerScore()));
+            game.recordHistory(GameHistoryEvent.dealerDrew(card));
+            log.debug("game={} dealer drew card={} score={}", game.getId(), card, game.getDealerScore());
+        }
+
+        recordPayouts(game);
+        log.info("game={} finished, dealer score={}", game.getId(), game.getDealerScore());
+    }
+
+    // Payouts are recorded on the game; player scores are only updated once the finished game has
+    // been saved, so a round replayed after a version conflict is never paid twice
+    private void recordPayouts(Game game) {
+        Map<String, Integer> payouts = new LinkedHashMap<>();
+        for (PlayerState playerState : game.getPlayersState()) {
+            playerState.setPayout(SettlementUtils.payout(playerState, game));
+            payouts.put(playerState.getPlayerId(), playerState.getPayout());
+            game.recordEvent(GameEvent.playerSettled(game.getId(), playerState.getPlayerId(), playerState.getPayout()));
+            log.debug("game={} player={} bet={} payout={}", game.getId(), playerState.getPlayerId(),
+                    playerState.getBet(), playerState.getPayout());
+        }
+        game.setGameState(GameState.FINISHED);
+        game.setFinishedAt(Instant.now());
+        game.recordEvent(GameEvent.gameFinished(game.getId(), game.getDealerScore()));
+        game.recordHistory(GameHistoryEvent.gameSettled(payouts, game.getDealerScore()));
     }
 }
@@ -0,0 +1,206 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ArchivedGame;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameArchiveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finished games out of the {@code games} collection, so it only holds the games being
+ * played and the ones that finished recently.
+ * <p>
+ * Every {@code blackjack.archive.interval} the games finished for longer than
+ * {@code blackjack.archive.finished-for} are moved in batches: each batch is written to the
+ * archive first, then to the run's export file when there is one, and only then removed from
+ * {@code games}. A run stopped halfway leaves the batch in both collections, and the next run
+ * archives it again over the copy already there. The archive expires games after
+ * {@code blackjack.archive.retention}; the export files are what is left of them after that.
+ */
+@Component
+public class GameArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiver.class);
+
+    private final GameArchiveRepository repository;
+    private final ObjectMapper objectMapper;
+    private final BlackjackProperties.Archive properties;
+    private Disposable archiver;
+
+    @Autowired
+    public GameArchiver(GameArchiveRepository repository, ObjectMapper objectMapper, BlackjackProperties properties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.properties = properties.getArchive();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            archiver = Flux.interval(properties.getInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> archiveFinished()
+                            .onErrorResume(error -> {
+                                log.warn("Finished games could not be archived, will retry: {}", error.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (archiver != null) {
+            archiver.dispose();
+        }
+    }
+
+    /**
+     * Archives every game finished for longer than {@code blackjack.archive.finished-for}, one batch
+     * at a time. Returns the number of games removed from the {@code games} collection.
+     */
+    public Mono<Long> archiveFinished() {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Instant finishedBefore = now.minus(properties.getFinishedFor());
+            // The export only gets its final name when every batch was archived
+            return Mono.usingWhen(Mono.fromSupplier(() -> new Export(exportFile(now), objectMapper)),
+                            export -> archiveBatches(finishedBefore, now, export),
+                            Export::complete,
+                            (export, error) -> export.discard(),
+                            Export::discard)
+                    .doOnNext(archived -> {
+                        if (archived > 0) {
+                            log.info("Archived {} finished games", archived);
+                        }
+                    });
+        });
+    }
+
+    // The next batch is only read once the previous one has left the games collection
+    private Mono<Long> archiveBatches(Instant finishedBefore, Instant now, Export export) {
+        int batchSize = properties.getBatchSize();
+        return repository.findFinished(finishedBefore, batchSize)
+                .collectList()
+                .flatMap(batch -> batch.isEmpty() ? Mono.just(0L) : archive(batch, now, export)
+                        .flatMap(removed -> batch.size() < batchSize || removed == 0
+                                ? Mono.just(removed)
+                                : archiveBatches(finishedBefore, now, export).map(more -> removed + more)));
+    }
+
+    private Mono<Long> archive(List<Game> batch, Instant now, Export export) {
+        List<ArchivedGame> archived = batch.stream().map(game -> ArchivedGame.of(game, now)).toList();
+        return repository.archive(archived)
+                .then(Mono.fromRunnable(() -> export.write(archived)).subscribeOn(Schedulers.boundedElastic()))
+                .then(Mono.defer(() -> repository.removeArchived(archived.stream().map(ArchivedGame::getId).toList())));
+    }
+
+    // An archived game as it was when it finished, without its shoe
+    public Mono<Game> findGame(String id) {
+        return repository.findById(id).map(ArchivedGame::toGame);
+    }
+
+    private Path exportFile(Instant now) {
+        if (properties.getExportDir() == null || properties.getExportDir().isBlank()) {
+            return null;
+        }
+        return Path.of(properties.getExportDir(), "games-archive-" + now.toEpochMilli() + ".ndjson.gz");
+    }
+
+    /**
+     * One gzipped line of JSON per archived game. The file is only created with the first game and
+     * keeps a temporary name until the run completes, so a file under its final name is complete.
+     * A run that fails or is cancelled deletes its partial file; the batches it had already moved
+     * stay in the archive but are in no export.
+     */
+    private static final class Export {
+
+        private final Path file;
+        private final ObjectMapper objectMapper;
+        private Path partial;
+        private OutputStream out;
+
+        private Export(Path file, ObjectMapper objectMapper) {
+            this.file = file;
+            this.objectMapper = objectMapper;
+        }
+
+        void write(List<ArchivedGame> games) {
+            if (file == null) {
+                return;
+            }
+            try {
+                if (out == null) {
+                    Files.createDirectories(file.getParent());
+                    partial = file.resolveSibling(file.getFileName() + ".part");
+                    out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024);
+                }
+                for (ArchivedGame game : games) {
+                    out.write(objectMapper.writeValueAsBytes(game));
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Archived games could not be exported to " + file, e);
+            }
+        }
+
+        Mono<Void> complete() {
+            return Mono.<Void>fromRunnable(() -> {
+                if (out == null) {
+                    return;
+                }
+                try {
+                    out.close();
+                    Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+                    log.info("Exported archived games to {}", file);
+                } catch (IOException e) {
+                    log.warn("Archive export {} could not be completed: {}", file, e.getMessage());
+                    deletePartial();
+                }
+            }).subscribeOn(Schedulers.boundedElastic());
+        }
+
+        // A run that failed or was cancelled leaves no file behind; its games are archived again
+        Mono<Void> discard() {
+            return Mono.<Void>fromRunnable(() -> {
+                if (out == null) {
+                    return;
+                }
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // The partial file is deleted either way
+                }
+                deletePartial();
+            }).subscribeOn(Schedulers.boundedElastic());
+        }
+
+        private void deletePartial() {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Partial archive export {} could not be deleted: {}", partial, e.getMessage());
+            }
+        }
+    }
+}
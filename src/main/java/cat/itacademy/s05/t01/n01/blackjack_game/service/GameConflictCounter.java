@@ -0,0 +1,57 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts optimistic locking conflicts on games and what the move pipeline did about them.
+ * The counts are published as the {@code blackjack.game.conflicts} meters.
+ */
+@Component
+public class GameConflictCounter implements MeterBinder {
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public void recordConflict() {
+        conflicts.incrementAndGet();
+    }
+
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    public void recordExhausted() {
+        exhausted.incrementAndGet();
+    }
+
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getExhausted() {
+        return exhausted.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("blackjack.game.conflicts", conflicts, AtomicLong::get)
+                .description("Moves that lost an optimistic locking race")
+                .register(registry);
+        FunctionCounter.builder("blackjack.game.conflicts.retries", retries, AtomicLong::get)
+                .description("Moves replayed against the latest game after a conflict")
+                .register(registry);
+        FunctionCounter.builder("blackjack.game.conflicts.exhausted", exhausted, AtomicLong::get)
+                .description("Moves that failed because every retry conflicted")
+                .register(registry);
+    }
+}
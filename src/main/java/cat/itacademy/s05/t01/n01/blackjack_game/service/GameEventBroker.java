@@ -0,0 +1,109 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes saved game changes to the clients following a game.
+ * <p>
+ * A game gets a multicast sink while somebody is subscribed to it. The sink never waits for a slow
+ * subscriber: every subscriber has its own bounded buffer that drops its oldest events when full,
+ * so one stalled connection cannot hold back the game or the other subscribers. The stream
+ * completes once the game has finished or been deleted.
+ */
+@Component
+public class GameEventBroker {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventBroker.class);
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final int bufferSize;
+
+    @Autowired
+    public GameEventBroker(BlackjackProperties properties) {
+        this.bufferSize = properties.getEvents().getBufferSize();
+    }
+
+    public Flux<GameEvent> subscribe(String gameId) {
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(gameId, (id, current) -> {
+                Channel joined = current != null ? current : new Channel();
+                joined.subscribers++;
+                return joined;
+            });
+            return channel.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize,
+                            dropped -> log.debug("game={} slow subscriber, dropped event {}", gameId, dropped.getType()),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> leave(gameId, channel));
+        });
+    }
+
+    /**
+     * Hands the events recorded on a saved game to its subscribers.
+     */
+    public void publish(Game game) {
+        List<GameEvent> events = game.getRecordedEvents();
+        Channel channel = channels.get(game.getId());
+        if (channel == null || events.isEmpty()) {
+            return;
+        }
+        synchronized (channel) {
+            for (GameEvent event : events) {
+                channel.sink.tryEmitNext(event);
+                if (event.getType() == GameEvent.Type.GAME_FINISHED) {
+                    close(game.getId(), channel);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Completes the subscribers of a game that no longer changes
+    public void close(String gameId) {
+        Channel channel = channels.get(gameId);
+        if (channel != null) {
+            synchronized (channel) {
+                close(gameId, channel);
+            }
+        }
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    private void close(String gameId, Channel channel) {
+        channels.remove(gameId, channel);
+        channel.sink.tryEmitComplete();
+    }
+
+    private void leave(String gameId, Channel channel) {
+        channels.computeIfPresent(gameId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            current.subscribers--;
+            return current.subscribers == 0 ? null : current;
+        });
+    }
+
+    private static final class Channel {
+
+        private final Sinks.Many<GameEvent> sink = Sinks.many().multicast().directBestEffort();
+        // Only read and written inside the channels map's compute functions
+        private int subscribers;
+    }
+}
@@ -0,0 +1,145 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work submitted for a game one task at a time, in submission order.
+ * <p>
+ * Every game id is hashed onto one of a fixed set of single-threaded lanes. A game with queued
+ * work gets a mailbox on its lane: the next task starts on the lane thread only once the previous
+ * one has completed, including any database round-trip. Different games run concurrently, so
+ * throughput scales with the number of lanes, while a game's state is never touched by two moves
+ * at once. A mailbox is dropped as soon as it runs empty. A caller that cancels stops its work
+ * if it is running and skips it if it is still queued.
+ */
+@Component
+public class GameExecutor {
+
+    private final Scheduler[] lanes;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameExecutor(BlackjackProperties properties) {
+        int laneCount = properties.getExecutor().getLanes();
+        if (laneCount <= 0) {
+            laneCount = Runtime.getRuntime().availableProcessors();
+        }
+        lanes = new Scheduler[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Schedulers.newSingle("game-lane-" + i, true);
+        }
+    }
+
+    public <T> Mono<T> submit(String gameId, Supplier<Mono<T>> work) {
+        return Mono.create(sink -> {
+            Sinks.One<Boolean> cancelled = Sinks.one();
+            sink.onCancel(() -> cancelled.tryEmitValue(true));
+            Supplier<Mono<Void>> task = () -> Mono.defer(work)
+                    .doOnSuccess(sink::success)
+                    .doOnError(sink::error)
+                    .onErrorResume(error -> Mono.empty())
+                    .then()
+                    // Completes the task as soon as the caller cancels, so the lane moves on
+                    .takeUntilOther(cancelled.asMono())
+                    // The lane subscribes to the work, so the caller's context, and with it the
+                    // current trace, is handed over explicitly
+                    .contextWrite(sink.contextView());
+            while (true) {
+                Mailbox mailbox = mailboxes.computeIfAbsent(gameId, id -> new Mailbox(id, laneFor(id)));
+                if (mailbox.offer(task)) {
+                    return;
+                }
+                // The mailbox ran empty and closed between the lookup and the offer
+                mailboxes.remove(gameId, mailbox);
+            }
+        });
+    }
+
+    int laneCount() {
+        return lanes.length;
+    }
+
+    int mailboxCount() {
+        return mailboxes.size();
+    }
+
+    private Scheduler laneFor(String gameId) {
+        return lanes[Math.floorMod(gameId.hashCode(), lanes.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Scheduler lane : lanes) {
+            lane.dispose();
+        }
+    }
+
+    private final class Mailbox {
+
+        private final String gameId;
+        private final Scheduler lane;
+        private final Queue<Supplier<Mono<Void>>> tasks = new ConcurrentLinkedQueue<>();
+        // Tasks accepted and not yet completed; -1 once the mailbox has closed
+        private final AtomicInteger pending = new AtomicInteger();
+        // Set when the lane found the next accepted task not enqueued yet; its submitter resumes the lane
+        private final AtomicBoolean parked = new AtomicBoolean();
+
+        private Mailbox(String gameId, Scheduler lane) {
+            this.gameId = gameId;
+            this.lane = lane;
+        }
+
+        boolean offer(Supplier<Mono<Void>> task) {
+            int count;
+            do {
+                count = pending.get();
+                if (count < 0) {
+                    return false;
+                }
+            } while (!pending.compareAndSet(count, count + 1));
+
+            tasks.offer(task);
+            if (count == 0 || parked.compareAndSet(true, false)) {
+                lane.schedule(this::runNext);
+            }
+            return true;
+        }
+
+        private void runNext() {
+            Supplier<Mono<Void>> task = tasks.poll();
+            if (task == null) {
+                // Counted by a submitter that has not enqueued it yet. Whichever of the two sees
+                // the other first runs it: the submitter after enqueueing, or the lane right here.
+                parked.set(true);
+                if (tasks.isEmpty() || !parked.compareAndSet(true, false)) {
+                    return;
+                }
+                task = tasks.poll();
+            }
+            task.get().doFinally(signal -> completed()).subscribe();
+        }
+
+        private void completed() {
+            if (pending.decrementAndGet() > 0) {
+                lane.schedule(this::runNext);
+            } else if (pending.compareAndSet(0, -1)) {
+                mailboxes.remove(gameId, this);
+            }
+        }
+    }
+}
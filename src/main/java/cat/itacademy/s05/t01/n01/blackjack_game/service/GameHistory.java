@@ -0,0 +1,198 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameHistoryRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.BlackjackRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends what every saved move did to the game's history, and rebuilds games from it.
+ * <p>
+ * The game document stays the live state; the history is the audit trail next to it. A move
+ * appends a few small entries, stamped with the version its save produced, and every
+ * {@code blackjack.history.snapshot-interval} versions, and when the game finishes, the saved
+ * game is stored as a snapshot. A game is rebuilt by applying the entries after its latest
+ * snapshot. The history is written after the move is saved, so failing to write it never fails
+ * the move: the saved game is snapshotted instead, which keeps rebuilds right while that move
+ * is missing from the trail.
+ */
+@Component
+public class GameHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(GameHistory.class);
+
+    private final GameHistoryRepository repository;
+    private final BlackjackProperties.History properties;
+
+    @Autowired
+    public GameHistory(GameHistoryRepository repository, BlackjackProperties properties) {
+        this.repository = repository;
+        this.properties = properties.getHistory();
+    }
+
+    // A new game starts its history with a snapshot of itself as it was created
+    public Mono<Game> started(Game game) {
+        if (!properties.isEnabled()) {
+            return Mono.just(game);
+        }
+        List<GameHistoryEvent> events = stamp(game);
+        return repository.saveSnapshot(new GameSnapshot(game))
+                .then(events.isEmpty() ? Mono.empty() : repository.append(events))
+                .onErrorResume(error -> {
+                    log.warn("game={} history could not be started: {}", game.getId(), error.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(game);
+    }
+
+    public Mono<Void> startedAll(List<Game> games) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        List<GameSnapshot> snapshots = new ArrayList<>(games.size());
+        List<GameHistoryEvent> events = new ArrayList<>();
+        for (Game game : games) {
+            snapshots.add(new GameSnapshot(game));
+            events.addAll(stamp(game));
+        }
+        return repository.saveSnapshots(snapshots)
+                .then(events.isEmpty() ? Mono.empty() : repository.append(events))
+                .onErrorResume(error -> {
+                    log.warn("History of {} new games could not be started: {}", games.size(), error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Removes the history of games whose creation is undone
+    public Mono<Void> discardAll(List<String> gameIds) {
+        return repository.deleteGames(gameIds);
+    }
+
+    public Mono<Game> record(Game saved) {
+        if (!properties.isEnabled() || saved.getRecordedHistory().isEmpty()) {
+            return Mono.just(saved);
+        }
+        List<GameHistoryEvent> events = stamp(saved);
+        Mono<Void> snapshot = isSnapshotDue(saved) ? repository.saveSnapshot(new GameSnapshot(saved)) : Mono.empty();
+        return repository.append(events)
+                .then(snapshot)
+                .onErrorResume(error -> {
+                    log.warn("game={} version={} history could not be appended, snapshotting instead: {}",
+                            saved.getId(), saved.getVersion(), error.getMessage());
+                    return repository.saveSnapshot(new GameSnapshot(saved))
+                            .onErrorResume(snapshotError -> Mono.empty());
+                })
+                .thenReturn(saved);
+    }
+
+    public Flux<GameHistoryEvent> events(String gameId) {
+        return repository.findEvents(gameId);
+    }
+
+    // The game as it was created, the first snapshot of its history
+    public Mono<GameSnapshot> opening(String gameId) {
+        return repository.findFirstSnapshot(gameId);
+    }
+
+    // The game at its latest recorded version: its latest snapshot with the entries after it applied
+    public Mono<Game> rebuild(String gameId) {
+        return repository.findLatestSnapshot(gameId)
+                .flatMap(snapshot -> repository.findEvents(gameId, snapshot.getVersion())
+                        .collectList()
+                        .map(events -> replay(snapshot, events)));
+    }
+
+    static Game replay(GameSnapshot snapshot, List<GameHistoryEvent> events) {
+        Game game = snapshot.getGame();
+        game.setVersion(snapshot.getVersion());
+        for (GameHistoryEvent event : events) {
+            apply(game, event);
+            game.setVersion(event.getVersion());
+        }
+        return game;
+    }
+
+    /**
+     * Applies one history entry to the game, as the move that recorded it did. Cards are dealt from
+     * the game's own shoe and checked against the entry, so a history that does not match the shoe
+     * is caught instead of replayed.
+     */
+    public static void apply(Game game, GameHistoryEvent event) {
+        switch (event.getType()) {
+            case ACTION_TAKEN -> {
+                PlayerState playerState = seat(game, event.getPlayerId());
+                switch (event.getAction()) {
+                    case STANDING, SURRENDERED -> playerState.setAction(event.getAction());
+                    case DOUBLED_DOWN -> {
+                        playerState.setBet(BlackjackRules.doubledBet(playerState.getBet(), event.getAmountBet()));
+                        playerState.setAction(PlayerAction.DOUBLED_DOWN);
+                    }
+                    // A hit is the card dealt next
+                    default -> {
+                    }
+                }
+            }
+            case CARD_DEALT -> {
+                PlayerState playerState = seat(game, event.getPlayerId());
+                playerState.addCard(deal(game, event));
+                if (playerState.isBust()) {
+                    playerState.setAction(PlayerAction.BUSTED);
+                }
+            }
+            case DEALER_DREW -> game.addDealerCard(deal(game, event));
+            case SHOE_SHUFFLED -> game.replaceDeck(Shoe.fromSeed(event.getSeed(), event.getDecks(), event.getInPlay(),
+                    size -> event.getCutCard()));
+            case GAME_SETTLED -> {
+                game.getPlayersState().forEach(playerState ->
+                        playerState.setPayout(event.getPayouts().get(playerState.getPlayerId())));
+                game.setGameState(GameState.FINISHED);
+            }
+        }
+    }
+
+    private static Card deal(Game game, GameHistoryEvent event) {
+        Card card = game.getDeck().deal();
+        if (!card.toString().equals(event.getCard())) {
+            throw new IllegalStateException("Game " + game.getId() + " version " + event.getVersion()
+                    + " records " + event.getCard() + " but its shoe deals " + card);
+        }
+        return card;
+    }
+
+    private static PlayerState seat(Game game, String playerId) {
+        return game.getPlayersState().stream()
+                .filter(playerState -> playerState.getPlayerId().equals(playerId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Game " + game.getId() + " has no seat for player " + playerId));
+    }
+
+    private static List<GameHistoryEvent> stamp(Game game) {
+        List<GameHistoryEvent> events = game.getRecordedHistory();
+        long version = game.getVersion() == null ? 0 : game.getVersion();
+        for (int seq = 0; seq < events.size(); seq++) {
+            events.get(seq).stamp(game.getId(), version, seq);
+        }
+        return events;
+    }
+
+    private boolean isSnapshotDue(Game game) {
+        return game.getGameState() == GameState.FINISHED
+                || game.getVersion() != null && game.getVersion() % properties.getSnapshotInterval() == 0;
+    }
+}
@@ -1,43 +1,102 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.service;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.InvalidMoveException;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.PlayerNotFoundException;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.BatchedMove;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CreatedGame;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSummary;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveOutcome;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerRank;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
-import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.TableRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplay;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplayer;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.RecordedGame;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
 import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
-import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.GameNotFoundException;
 
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class GameManager implements GameService {
 
-    private final GameRepository gameRepository;
+    private static final Logger log = LoggerFactory.getLogger(GameManager.class);
+
+    private final GameStore gameStore;
     private final PlayerRepository playerRepository;
     private final GameActionInteractor gameActionInteractor;
+    private final GameExecutor gameExecutor;
+    private final Leaderboard leaderboard;
+    private final GameEventBroker gameEventBroker;
+    private final GameHistory gameHistory;
+    private final GameReplayer gameReplayer;
+    private final GameArchiver gameArchiver;
+    private final GameConflictCounter conflictCounter;
+    private final ObservationRegistry observationRegistry;
+    private final BlackjackProperties.Concurrency concurrency;
+    private final BlackjackProperties.Bulk bulk;
+    private final BlackjackProperties.Listing listing;
 
     @Autowired
     public GameManager(
-            GameRepository gameRepository,
+            GameStore gameStore,
             PlayerRepository playerRepository,
-            GameActionInteractor gameActionInteractor) {
-        this.gameRepository = gameRepository;
+            GameActionInteractor gameActionInteractor,
+            GameExecutor gameExecutor,
+            Leaderboard leaderboard,
+            GameEventBroker gameEventBroker,
+            GameHistory gameHistory,
+            GameReplayer gameReplayer,
+            GameArchiver gameArchiver,
+            GameConflictCounter conflictCounter,
+            ObservationRegistry observationRegistry,
+            BlackjackProperties properties) {
+        this.gameStore = gameStore;
         this.playerRepository = playerRepository;
         this.gameActionInteractor = gameActionInteractor;
+        this.gameExecutor = gameExecutor;
+        this.leaderboard = leaderboard;
+        this.gameEventBroker = gameEventBroker;
+        this.gameHistory = gameHistory;
+        this.gameReplayer = gameReplayer;
+        this.gameArchiver = gameArchiver;
+        this.conflictCounter = conflictCounter;
+        this.observationRegistry = observationRegistry;
+        this.concurrency = properties.getConcurrency();
+        this.bulk = properties.getBulk();
+        this.listing = properties.getListing();
     }
 
     @Override
@@ -45,173 +104,416 @@ public class GameManager implements GameService {
         Player player = new Player(playerName, 0);
 
         return playerRepository.save(player)
-                .flatMap(savedPlayer -> {
-                    Game game = new Game();
-                    game.setId(UUID.randomUUID().toString());
-                    game.setGameState(GameState.ONGOING);
-
-                    PlayerState playerState = new PlayerState(savedPlayer.getId());
-                    playerState.setHand(new ArrayList<>());
-                    playerState.setScore(0);
-
-                    game.setPlayersState(new ArrayList<>(List.of(playerState)));
-                    game.setDealerHand(new ArrayList<>());
-                    game.setDealerScore(0);
-
-                    gameActionInteractor.initializeGame(game);
-
-                    return gameRepository.save(game);
-                });
+                .doOnNext(leaderboard::update)
+                .flatMap(savedPlayer -> gameStore.save(dealTable(List.of(savedPlayer.getId()))))
+                .doOnNext(gameActionInteractor::recordSaved)
+                .flatMap(gameHistory::started);
     }
 
     @Override
     public Mono<Game> startNewGame(List<String> playerIds) {
-        return playerRepository.findAllById(playerIds)
+        return playerRepository.findPlayers(playerIds)
                 .collectList()
                 .flatMap(players -> {
                     if (players.size() != playerIds.size()) {
                         return Mono.error(new PlayerNotFoundException());
                     }
 
-                    Game game = new Game();
-                    game.setId(UUID.randomUUID().toString());
-                    game.setGameState(GameState.ONGOING);
+                    Game game = dealTable(players.stream().map(Player::getId).collect(Collectors.toList()));
+                    return gameStore.save(game)
+                            .doOnNext(gameActionInteractor::recordSaved)
+                            .flatMap(gameHistory::started);
+                });
+    }
 
-                    List<PlayerState> playerStates = players.stream()
-                            .map(player -> {
-                                PlayerState playerState = new PlayerState(player.getId());
-                                playerState.setHand(new ArrayList<>());
-                                playerState.setScore(0);
-                                return playerState;
-                            })
-                            .collect(Collectors.toList());
-
-                    game.setPlayersState(new ArrayList<>(playerStates));
-                    game.setDealerHand(new ArrayList<>());
-                    game.setDealerScore(0);
-
-                    gameActionInteractor.initializeGame(game);
-
-                    Mono<Game> playerCardDealing = Flux.fromIterable(playerStates)
-                            .flatMap(playerState ->
-                                    gameActionInteractor.dealCard(game)
-                                            .flatMap(card1 -> {
-                                                System.out.println("Dealt first card to player " + playerState.getPlayerId() + ": " + card1);
-                                                playerState.getPlayerHand().add(card1);
-                                                playerState.setScore(CardUtils.calculateHandValue(playerState.getPlayerHand()));
-                                                return gameActionInteractor.dealCard(game);
-                                            })
-                                            .flatMap(card2 -> {
-                                                System.out.println("Dealt second card to player " + playerState.getPlayerId() + ": " + card2);
-                                                playerState.getPlayerHand().add(card2);
-                                                playerState.setScore(CardUtils.calculateHandValue(playerState.getPlayerHand()));
-                                                return Mono.just(playerState);
-                                            })
-                            )
-                            .then(Mono.just(game));
-
-                    Mono<Game> dealerCardDealing = gameActionInteractor.dealCard(game)
-                            .flatMap(card1 -> {
-                                System.out.println("Dealt first card to dealer: " + card1);
-                                game.getDealerHand().add(card1);
-                                game.setDealerScore(CardUtils.calculateHandValue(game.getDealerHand()));
-                                return gameActionInteractor.dealCard(game);
-                            })
-                            .flatMap(card2 -> {
-                                System.out.println("Dealt second card to dealer: " + card2);
-                                game.getDealerHand().add(card2);
-                                game.setDealerScore(CardUtils.calculateHandValue(game.getDealerHand()));
-                                return Mono.just(game);
-                            });
-
-                    return playerCardDealing
-                            .then(dealerCardDealing)
-                            .flatMap(gameRepository::save);
+    @Override
+    public Flux<CreatedGame> createGames(List<TableRequest> tables) {
+        if (tables == null || tables.isEmpty() || tables.size() > bulk.getMaxTables()) {
+            return Flux.error(new IllegalArgumentException("Between 1 and " + bulk.getMaxTables() + " tables can be created at once"));
+        }
+        for (TableRequest table : tables) {
+            if (table.seats() == 0) {
+                return Flux.error(new IllegalArgumentException("Every table needs at least one player"));
+            }
+            if (new HashSet<>(table.getPlayerIds()).size() != table.getPlayerIds().size()) {
+                return Flux.error(new IllegalArgumentException("A player can only take one seat per table"));
+            }
+            for (String playerId : table.getPlayerIds()) {
+                if (Player.toKey(playerId) == null) {
+                    return Flux.error(new IllegalArgumentException("Invalid player id: " + playerId));
+                }
+            }
+        }
+
+        return Flux.defer(() -> {
+            List<Player> newPlayers = new ArrayList<>();
+            tables.forEach(table -> table.getPlayerNames().forEach(name -> newPlayers.add(new Player(name, 0))));
+            // Ids of every game sent to Mongo, registered before its batch is written: an ordered
+            // insert that fails partway has written part of the batch without emitting any of it
+            List<String> gameIds = new ArrayList<>();
+            return seatPlayers(tables, newPlayers)
+                    .flatMapMany(seats -> Flux.fromIterable(seats)
+                            // Shuffling a shoe is the CPU-heavy part, so tables are dealt in parallel
+                            // and handed on in the order they were requested
+                            .flatMapSequential(playerIds -> Mono.fromCallable(() -> dealTable(playerIds))
+                                    .subscribeOn(Schedulers.parallel()))
+                            .buffer(bulk.getBatchSize())
+                            .concatMap(batch -> Flux.defer(() -> {
+                                        batch.forEach(game -> gameIds.add(game.getId()));
+                                        return gameStore.insertAll(batch);
+                                    })
+                                    .doOnNext(gameActionInteractor::recordSaved)
+                                    .then(gameHistory.startedAll(batch))
+                                    .thenMany(Flux.fromIterable(batch))))
+                    .index((table, game) -> new CreatedGame(table.intValue(), game.getId()))
+                    .onErrorResume(error -> undoCreateGames(gameIds, newPlayers).then(Mono.<CreatedGame>error(error)));
+        }).doOnComplete(() -> log.info("{} tables created", tables.size()));
+    }
+
+    // The new players get their ids from MySQL, so they are inserted before the games that seat
+    // them. When a later step fails, the players and games created so far are removed again,
+    // along with the history the games started.
+    private Mono<Void> undoCreateGames(List<String> gameIds, List<Player> newPlayers) {
+        List<Long> playerKeys = newPlayers.stream()
+                .map(player -> Player.toKey(player.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+        if (gameIds.isEmpty() && playerKeys.isEmpty()) {
+            return Mono.empty();
+        }
+        Mono<Void> games = gameIds.isEmpty() ? Mono.empty()
+                : gameStore.deleteAll(gameIds).then(gameHistory.discardAll(gameIds));
+        return games
+                .then(playerKeys.isEmpty() ? Mono.empty() : playerRepository.deleteAllById(playerKeys))
+                .doOnSuccess(unused -> {
+                    newPlayers.stream().map(Player::getId).filter(Objects::nonNull).forEach(leaderboard::remove);
+                    log.warn("Bulk creation failed, removed {} games and {} players it had created",
+                            gameIds.size(), playerKeys.size());
+                })
+                .onErrorResume(error -> {
+                    log.error("Bulk creation failed and its players and games could not be removed", error);
+                    return Mono.empty();
                 });
     }
 
+    // Checks the seated players exist and creates the new ones in batches, returning the player
+    // ids of every table
+    private Mono<List<List<String>>> seatPlayers(List<TableRequest> tables, List<Player> newPlayers) {
+        Set<String> existingIds = new HashSet<>();
+        for (TableRequest table : tables) {
+            existingIds.addAll(table.getPlayerIds());
+        }
+
+        Mono<Long> found = existingIds.isEmpty()
+                ? Mono.just(0L)
+                : playerRepository.findPlayers(existingIds).count();
+
+        return found.flatMap(count -> {
+            if (count != existingIds.size()) {
+                return Mono.error(new PlayerNotFoundException());
+            }
+            return Flux.fromIterable(newPlayers)
+                    .buffer(bulk.getBatchSize())
+                    .concatMap(playerRepository::insertAll)
+                    .doOnNext(leaderboard::update)
+                    .then(Mono.fromCallable(() -> {
+                        List<List<String>> seats = new ArrayList<>(tables.size());
+                        int next = 0;
+                        for (TableRequest table : tables) {
+                            List<String> playerIds = new ArrayList<>(table.getPlayerIds());
+                            for (int i = 0; i < table.getPlayerNames().size(); i++) {
+                                playerIds.add(newPlayers.get(next++).getId());
+                            }
+                            seats.add(playerIds);
+                        }
+                        return seats;
+                    }));
+        });
+    }
+
+    private Game dealTable(List<String> playerIds) {
+        Game game = newGame(playerIds);
+        gameActionInteractor.dealOpeningHands(game);
+        return game;
+    }
+
+    private Game newGame(List<String> playerIds) {
+        Game game = new Game();
+        game.setId(UUID.randomUUID().toString());
+        game.setGameState(GameState.ONGOING);
+        game.setCreatedAt(Instant.now());
+
+        List<PlayerState> playerStates = new ArrayList<>(playerIds.size());
+        for (String playerId : playerIds) {
+            PlayerState playerState = new PlayerState(playerId);
+            playerState.setHand(new CardList());
+            playerStates.add(playerState);
+        }
+
+        game.setPlayersState(playerStates);
+        game.setDealerHand(new CardList());
+
+        gameActionInteractor.initializeGame(game);
+        return game;
+    }
+
     @Override
     public Mono<Game> makeMove(String gameId, String playerId, PlayerAction playerAction, int amountBet) {
-        return gameRepository.findById(gameId)
+        // Moves on a game are queued on its lane and run one at a time. The game is read once per
+        // attempt and handed to the interactor; a retry after a version conflict is queued again
+        // and reloads it, so the move is replayed against the latest state. The observation times the
+        // whole move, retries included, and is the parent span of its database calls
+        return gameExecutor.submit(gameId, () -> performMove(gameId, playerId, playerAction, amountBet))
+                .retryWhen(conflictRetry())
+                .doOnError(error -> log.warn("game={} player={} move {} failed: {}", gameId, playerId, playerAction, error.getMessage()))
+                .name("blackjack.move")
+                .tag("action", String.valueOf(playerAction))
+                .tap(Micrometer.observation(observationRegistry));
+    }
+
+    @Override
+    public Flux<MoveOutcome> makeMoves(List<BatchedMove> moves) {
+        if (moves == null || moves.isEmpty() || moves.size() > bulk.getMaxMoves()) {
+            return Flux.error(new IllegalArgumentException("Between 1 and " + bulk.getMaxMoves() + " moves can be sent at once"));
+        }
+        Map<String, List<Integer>> movesByGame = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            BatchedMove move = moves.get(i);
+            if (move.getGameId() == null || move.getPlayerId() == null || move.getMove() == null) {
+                return Flux.error(new IllegalArgumentException("Move " + i + " needs a gameId, a playerId and a move"));
+            }
+            movesByGame.computeIfAbsent(move.getGameId(), id -> new ArrayList<>()).add(i);
+        }
+
+        // Each game's moves run in order as one task on its lane, against one load and one write.
+        // Games complete independently, so results stream back as soon as their game is saved
+        return Flux.fromIterable(movesByGame.entrySet())
+                .flatMap(entry -> gameExecutor.submit(entry.getKey(), () -> performMoves(entry.getKey(), entry.getValue(), moves))
+                        .retryWhen(conflictRetry())
+                        .name("blackjack.move.batch")
+                        .tap(Micrometer.observation(observationRegistry))
+                        .onErrorResume(error -> {
+                            log.warn("game={} batch of {} moves failed: {}", entry.getKey(), entry.getValue().size(), error.getMessage());
+                            return Mono.just(rejectAll(entry.getValue(), moves, error.getMessage()));
+                        }))
+                .flatMapIterable(outcomes -> outcomes);
+    }
+
+    private Mono<List<MoveOutcome>> performMoves(String gameId, List<Integer> indexes, List<BatchedMove> moves) {
+        return gameStore.findById(gameId)
+                .flatMap(game -> {
+                    List<MoveOutcome> outcomes = new ArrayList<>(indexes.size());
+                    List<PlayerState> movedPlayers = new ArrayList<>();
+                    for (int index : indexes) {
+                        BatchedMove move = moves.get(index);
+                        try {
+                            PlayerState playerState = gameActionInteractor.applyMove(game, move.getPlayerId(),
+                                    move.getMove().getMoveType(), move.getMove().getAmountBet());
+                            if (movedPlayers.stream().noneMatch(moved -> moved == playerState)) {
+                                movedPlayers.add(playerState);
+                            }
+                            outcomes.add(MoveOutcome.applied(index, move, playerState));
+                        } catch (RuntimeException e) {
+                            log.debug("game={} player={} batched move rejected: {}", gameId, move.getPlayerId(), e.getMessage());
+                            outcomes.add(MoveOutcome.rejected(index, move, e.getMessage()));
+                        }
+                    }
+
+                    Mono<Game> saved = movedPlayers.isEmpty()
+                            ? Mono.just(game)
+                            : gameActionInteractor.saveMoves(game, movedPlayers);
+                    return saved.map(savedGame -> {
+                        outcomes.forEach(outcome -> outcome.recordSaved(savedGame));
+                        return outcomes;
+                    });
+                })
+                .switchIfEmpty(Mono.fromCallable(() -> rejectAll(indexes, moves, "Game not found with id: " + gameId)));
+    }
+
+    private static List<MoveOutcome> rejectAll(List<Integer> indexes, List<BatchedMove> moves, String error) {
+        List<MoveOutcome> outcomes = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            outcomes.add(MoveOutcome.rejected(index, moves.get(index), error));
+        }
+        return outcomes;
+    }
+
+    private Retry conflictRetry() {
+        return Retry.backoff(concurrency.getMaxRetries(), concurrency.getMinBackoff())
+                .maxBackoff(concurrency.getMaxBackoff())
+                .jitter(concurrency.getJitter())
+                .filter(error -> {
+                    if (error instanceof OptimisticLockingFailureException) {
+                        conflictCounter.recordConflict();
+                        return true;
+                    }
+                    return false;
+                })
+                .doBeforeRetry(signal -> conflictCounter.recordRetry())
+                .onRetryExhaustedThrow((spec, signal) -> {
+                    conflictCounter.recordExhausted();
+                    return signal.failure();
+                });
+    }
+
+    private Mono<Game> performMove(String gameId, String playerId, PlayerAction playerAction, int amountBet) {
+        return gameStore.findById(gameId)
                 .switchIfEmpty(Mono.error(new GameNotFoundException("Game not found with id: " + gameId)))
                 .flatMap(game -> {
                     if (game.getPlayersState() == null || game.getPlayersState().isEmpty()) {
                         return Mono.error(new IllegalStateException("No player states found for game id: " + gameId));
                     }
 
-                    System.out.println("Player IDs in the game: " +
-                            game.getPlayersState().stream().map(PlayerState::getPlayerId).collect(Collectors.toList()));
-
-                    System.out.println("Incoming playerId (type: " + playerId.getClass().getName() + "): " + playerId);
-
                     PlayerState playerState = game.getPlayersState().stream()
                             .filter(ps -> ps.getPlayerId().equals(playerId))
                             .findFirst()
                             .orElseThrow(() -> new PlayerNotFoundException());
 
-                    System.out.println("Found player with ID: " + playerState.getPlayerId());
+                    log.debug("game={} player={} {}", gameId, playerId, playerAction);
 
                     Mono<Game> actionResult = Mono.error(new InvalidMoveException("Invalid move type: " + playerAction));
 
                     switch (playerAction) {
                         case HIT:
-                            actionResult = gameActionInteractor.hit(game.getId(), playerState.getPlayerId());
+                            actionResult = gameActionInteractor.hit(game, playerState.getPlayerId());
                             break;
                         case STANDING:
-                            actionResult = gameActionInteractor.stand(game.getId(), playerState.getPlayerId());
+                            actionResult = gameActionInteractor.stand(game, playerState.getPlayerId());
                             break;
                         case DOUBLED_DOWN:
-                            actionResult = gameActionInteractor.doubleDown(game.getId(), playerState.getPlayerId(), amountBet);
+                            actionResult = gameActionInteractor.doubleDown(game, playerState.getPlayerId(), amountBet);
                             break;
                         case SURRENDERED:
-                            actionResult = gameActionInteractor.surrender(game.getId(), playerState.getPlayerId());
+                            actionResult = gameActionInteractor.surrender(game, playerState.getPlayerId());
                             break;
                     }
 
                     return actionResult
-                            .switchIfEmpty(Mono.error(new IllegalStateException("No action result found for playerAction: " + playerAction)))
-                            .doOnNext(result -> System.out.println("Action result: " + result))
-                            .doOnError(error -> System.err.println("Error during action: " + error.getMessage()));
+                            .switchIfEmpty(Mono.error(new IllegalStateException("No action result found for playerAction: " + playerAction)));
                 })
-                .switchIfEmpty(Mono.error(new IllegalArgumentException("Game not found")))
-                .doOnError(error -> System.err.println("Error in makeMove: " + error.getMessage()));
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Game not found")));
     }
 
     @Override
-    public Flux<Player> getPlayerRankings() {
-        return playerRepository.findAll()
-                .sort((p1, p2) -> {
-                    System.out.println("Comparing scores: " + p1.getScore() + " and " + p2.getScore());
-                    return Integer.compare(p2.getScore(), p1.getScore());
-                })
-                .doOnError(e -> System.err.println("Error fetching player rankings: " + e.getMessage()));
+    public Flux<Player> getPlayerRankings(int page, int size) {
+        if (page < 0 || size < 1) {
+            return Flux.error(new IllegalArgumentException("Page must be >= 0 and size >= 1"));
+        }
+        long offset = (long) page * size;
+        if (leaderboard.isLoaded()) {
+            return Flux.fromIterable(leaderboard.page(offset, size));
+        }
+        return playerRepository.findRankingPage(size, offset)
+                .doOnError(e -> log.error("Error fetching player rankings", e));
+    }
+
+    @Override
+    public Flux<Player> getTopPlayers(int count) {
+        return getPlayerRankings(0, count);
+    }
+
+    @Override
+    public Mono<PlayerRank> getPlayerRank(String playerId) {
+        if (leaderboard.isLoaded()) {
+            return Mono.justOrEmpty(leaderboard.rank(playerId))
+                    .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
+        }
+        return playerRepository.findPlayer(playerId)
+                .switchIfEmpty(Mono.error(new PlayerNotFoundException()))
+                .flatMap(player -> playerRepository.countByScoreGreaterThan(player.getScore())
+                        .map(higher -> new PlayerRank(player.getId(), player.getName(), player.getScore(), higher + 1)));
     }
 
     @Override
     public Mono<Player> changePlayerName(String playerId, String newName) {
-        return playerRepository.findById(playerId)
+        return playerRepository.findPlayer(playerId)
                 .flatMap(player -> {
                     player.setName(newName);
                     return playerRepository.save(player);
                 })
+                .doOnNext(leaderboard::update)
                 .switchIfEmpty(Mono.error(new PlayerNotFoundException()));
     }
 
     @Override
     public Mono<Game> getGameDetails(String id) {
-        return gameRepository.findById(id)
+        return gameStore.findById(id)
+                .switchIfEmpty(gameArchiver.findGame(id))
                 .switchIfEmpty(Mono.error(new GameNotFoundException("Game not found with id: " + id)));
     }
 
+    @Override
+    public Flux<GameSummary> getGames(GameState state, String after, Integer limit) {
+        return findPage(state, null, after, limit);
+    }
+
+    @Override
+    public Flux<GameSummary> getPlayerGames(String playerId, GameState state, String after, Integer limit) {
+        return playerRepository.findPlayer(playerId)
+                .switchIfEmpty(Mono.error(new PlayerNotFoundException()))
+                .flatMapMany(player -> findPage(state, playerId, after, limit));
+    }
+
+    // Pages start after the cursor of the last game of the previous page rather than at an offset,
+    // so a page deep into the listing costs the same as the first one
+    private Flux<GameSummary> findPage(GameState state, String playerId, String after, Integer limit) {
+        int pageSize = limit == null ? listing.getDefaultLimit() : limit;
+        if (pageSize < 1 || pageSize > listing.getMaxLimit()) {
+            return Flux.error(new IllegalArgumentException("Limit must be between 1 and " + listing.getMaxLimit()));
+        }
+        GameCursor cursor;
+        try {
+            cursor = after == null || after.isBlank() ? null : GameCursor.parse(after);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+        return gameStore.findPage(state, playerId, cursor, pageSize)
+                .map(GameSummary::new);
+    }
+
+    @Override
+    public Flux<GameHistoryEvent> getGameHistory(String id) {
+        // Until the game is over its history would give away the shoe, and with it the next cards
+        return getGameDetails(id)
+                .flatMapMany(game -> game.getGameState() == GameState.FINISHED
+                        ? gameHistory.events(id)
+                        : Flux.error(new IllegalStateException("The history of game " + id + " is available once it has finished")));
+    }
+
+    @Override
+    public Mono<GameReplay> getGameReplay(String id) {
+        // Deals the finished game again from its recorded shoes and checks every step against its history
+        return getGameDetails(id)
+                .flatMap(game -> game.getGameState() == GameState.FINISHED
+                        ? gameHistory.opening(id)
+                        : Mono.error(new IllegalStateException("Game " + id + " can be replayed once it has finished")))
+                .switchIfEmpty(Mono.error(new IllegalStateException("Game " + id + " has no recorded history to replay")))
+                .zipWith(gameHistory.events(id).collectList())
+                .map(recorded -> gameReplayer.replay(RecordedGame.fromHistory(recorded.getT1(), recorded.getT2())));
+    }
+
+    @Override
+    public Flux<GameEvent> streamGameEvents(String id) {
+        // Subscribing before the game is read means a round finishing in between is not missed
+        Mono<GameEvent> alreadyFinished = getGameDetails(id)
+                .filter(game -> game.getGameState() == GameState.FINISHED)
+                .map(game -> GameEvent.gameFinished(id, game.getDealerScore()));
+        return gameEventBroker.subscribe(id)
+                .mergeWith(alreadyFinished)
+                .takeUntil(event -> event.getType() == GameEvent.Type.GAME_FINISHED);
+    }
+
     @Override
     public Mono<Void> deleteGame(String id) {
-        return gameRepository.findById(id)
+        return gameExecutor.submit(id, () -> gameStore.findById(id)
                 .flatMap(game -> {
-                    System.out.println("Found game: " + game.getId());
-                    return gameRepository.delete(game)
-                            .doOnSuccess(unused -> System.out.println("Game deleted successfully with ID: " + id))
-                            .doOnError(e -> System.err.println("Error during deletion: " + e.getMessage()));
+                    return gameStore.delete(game)
+                            .doOnSuccess(unused -> {
+                                gameEventBroker.close(id);
+                                log.info("game={} deleted", id);
+                            })
+                            .doOnError(e -> log.error("game={} could not be deleted", id, e));
                 })
-                .switchIfEmpty(Mono.error(new GameNotFoundException("Game not found with id: " + id)));
+                .switchIfEmpty(Mono.error(new GameNotFoundException("Game not found with id: " + id))));
     }
 }
\ No newline at end of file
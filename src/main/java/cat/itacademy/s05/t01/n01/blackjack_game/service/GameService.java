@@ -1,8 +1,18 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.service;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.model.BatchedMove;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CreatedGame;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSummary;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveOutcome;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerRank;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.TableRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplay;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,9 +22,18 @@ public interface GameService {
 
     Mono<Game> createSinglePlayerGame(String playerName);
     Mono<Game> startNewGame(List<String> playerIds);
+    Flux<CreatedGame> createGames(List<TableRequest> tables);
     Mono<Game> makeMove(String gameId, String playerId, PlayerAction playerAction, int amountBet);
-    Flux<Player> getPlayerRankings();
+    Flux<MoveOutcome> makeMoves(List<BatchedMove> moves);
+    Flux<Player> getPlayerRankings(int page, int size);
+    Flux<Player> getTopPlayers(int count);
+    Mono<PlayerRank> getPlayerRank(String playerId);
     Mono<Player> changePlayerName(String playerId, String newName);
     Mono<Game> getGameDetails(String id);
+    Flux<GameSummary> getGames(GameState state, String after, Integer limit);
+    Flux<GameSummary> getPlayerGames(String playerId, GameState state, String after, Integer limit);
+    Flux<GameEvent> streamGameEvents(String id);
+    Flux<GameHistoryEvent> getGameHistory(String id);
+    Mono<GameReplay> getGameReplay(String id);
     Mono<Void> deleteGame(String id);
 }
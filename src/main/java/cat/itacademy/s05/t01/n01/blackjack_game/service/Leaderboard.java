@@ -0,0 +1,289 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerRank;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Players kept in ranking order (highest score first, ties by id) in an order-statistic treap.
+ * <p>
+ * Every node knows the size of its subtree, so a score change, a player's rank and the start of
+ * any ranking page are found in O(log n), and a page of k players is read in O(log n + k).
+ * The board is loaded from the players table once the application is ready and is then kept up
+ * to date by whoever changes a player. Until it is loaded, rankings are read from the database.
+ * A player changed while their row was being read is read again once the load is done, since
+ * the row may or may not include that change.
+ */
+@Component
+public class Leaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboard.class);
+
+    private final PlayerRepository playerRepository;
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Set<String> stale = new HashSet<>();
+    private Set<String> refreshing = new HashSet<>();
+    private Node root;
+    private volatile boolean loaded;
+
+    @Autowired
+    public Leaderboard(PlayerRepository playerRepository) {
+        this.playerRepository = playerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        playerRepository.findAll()
+                .collectList()
+                .subscribe(this::loadAll, error -> log.warn("Leaderboard could not be loaded: {}", error.getMessage()));
+    }
+
+    // Players saved while the table was being read are already on the board with newer data
+    synchronized void loadAll(List<Player> players) {
+        for (Player player : players) {
+            if (!nodes.containsKey(player.getId())) {
+                insert(new Node(player, random.nextInt()));
+            }
+        }
+        loaded = true;
+        log.info("Leaderboard loaded with {} players", nodes.size());
+        refreshStale();
+    }
+
+    // Reads again the players changed during the last read, until a read races no change
+    private void refreshStale() {
+        refreshing = stale;
+        stale = new HashSet<>();
+        if (refreshing.isEmpty()) {
+            return;
+        }
+        Set<String> playerIds = refreshing;
+        playerRepository.findPlayers(playerIds)
+                .collectList()
+                .subscribe(players -> refreshed(playerIds, players),
+                        error -> log.warn("Leaderboard could not refresh {} players: {}", playerIds.size(), error.getMessage()));
+    }
+
+    synchronized void refreshed(Set<String> playerIds, List<Player> players) {
+        Map<String, Player> found = players.stream().collect(Collectors.toMap(Player::getId, Function.identity()));
+        for (String playerId : playerIds) {
+            if (!stale.contains(playerId)) {
+                Player player = found.get(playerId);
+                unlink(playerId);
+                if (player != null) {
+                    insert(new Node(player, random.nextInt()));
+                }
+            }
+        }
+        refreshStale();
+    }
+
+    // Before the load a player missing from the board may be on its way in with an older row
+    private void touch(String playerId) {
+        if ((!loaded && !nodes.containsKey(playerId)) || refreshing.contains(playerId)) {
+            stale.add(playerId);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // A saved player is newer than the table being loaded, so it only goes stale under a refresh
+    public synchronized void update(Player player) {
+        unlink(player.getId());
+        insert(new Node(player, random.nextInt()));
+        touch(player.getId());
+    }
+
+    public synchronized void addScore(ScoreDelta delta) {
+        touch(delta.getPlayerId());
+        Node node = nodes.get(delta.getPlayerId());
+        if (node != null) {
+            unlink(node.playerId);
+            insert(new Node(node.playerId, node.name, node.score + delta.getScore(),
+                    node.totalWins + delta.getWins(), node.totalLosses + delta.getLosses(), random.nextInt()));
+        }
+    }
+
+    public synchronized void remove(String playerId) {
+        touch(playerId);
+        unlink(playerId);
+    }
+
+    private void unlink(String playerId) {
+        Node node = nodes.remove(playerId);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    public synchronized List<Player> page(long offset, int limit) {
+        List<Player> players = new ArrayList<>(limit);
+        if (offset < size(root)) {
+            collect(root, (int) offset, (int) Math.min(offset + limit, size(root)), 0, players);
+        }
+        return players;
+    }
+
+    public synchronized Optional<PlayerRank> rank(String playerId) {
+        Node node = nodes.get(playerId);
+        if (node == null) {
+            return Optional.empty();
+        }
+        // No player id has a key of 0, so this counts the players with a strictly higher score
+        long rank = countBefore(root, node.score, 0) + 1;
+        return Optional.of(new PlayerRank(node.playerId, node.name, node.score, rank));
+    }
+
+    private void insert(Node node) {
+        nodes.put(node.playerId, node);
+        Node[] parts = split(root, node.score, node.key);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    // Splits into the nodes ranked before (score, key) and the rest
+    private static Node[] split(Node tree, int score, long key) {
+        if (tree == null) {
+            return new Node[2];
+        }
+        if (tree.isBefore(score, key)) {
+            Node[] parts = split(tree.right, score, key);
+            tree.right = parts[0];
+            tree.resize();
+            return new Node[]{tree, parts[1]};
+        }
+        Node[] parts = split(tree.left, score, key);
+        tree.left = parts[1];
+        tree.resize();
+        return new Node[]{parts[0], tree};
+    }
+
+    // Every node of the first tree is ranked before every node of the second
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            first.resize();
+            return first;
+        }
+        second.left = merge(first, second.left);
+        second.resize();
+        return second;
+    }
+
+    private static Node delete(Node tree, Node node) {
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+        if (tree.isBefore(node.score, node.key)) {
+            tree.right = delete(tree.right, node);
+        } else {
+            tree.left = delete(tree.left, node);
+        }
+        tree.resize();
+        return tree;
+    }
+
+    private static long countBefore(Node tree, int score, long key) {
+        long count = 0;
+        while (tree != null) {
+            if (tree.isBefore(score, key)) {
+                count += size(tree.left) + 1;
+                tree = tree.right;
+            } else {
+                tree = tree.left;
+            }
+        }
+        return count;
+    }
+
+    // Adds the players ranked in [from, to); first is the position of the subtree's leftmost node
+    private static void collect(Node tree, int from, int to, int first, List<Player> players) {
+        if (tree == null || first >= to || first + tree.size <= from) {
+            return;
+        }
+        int position = first + size(tree.left);
+        collect(tree.left, from, to, first, players);
+        if (position >= from && position < to) {
+            players.add(tree.toPlayer());
+        }
+        collect(tree.right, from, to, position + 1, players);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final String playerId;
+        private final long key;
+        private final String name;
+        private final int score;
+        private final int totalWins;
+        private final int totalLosses;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Player player, int priority) {
+            this(player.getId(), player.getName(), player.getScore(), player.getTotalWins(), player.getTotalLosses(), priority);
+        }
+
+        private Node(String playerId, String name, int score, int totalWins, int totalLosses, int priority) {
+            this.playerId = playerId;
+            this.key = Player.toKey(playerId);
+            this.name = name;
+            this.score = score;
+            this.totalWins = totalWins;
+            this.totalLosses = totalLosses;
+            this.priority = priority;
+        }
+
+        // Ties follow the numeric players.id, like the ranking query
+        private boolean isBefore(int otherScore, long otherKey) {
+            return score > otherScore || (score == otherScore && key < otherKey);
+        }
+
+        private void resize() {
+            size = size(left) + size(right) + 1;
+        }
+
+        private Player toPlayer() {
+            Player player = new Player(name, score);
+            player.setId(playerId);
+            player.setTotalWins(totalWins);
+            player.setTotalLosses(totalLosses);
+            return player;
+        }
+    }
+}
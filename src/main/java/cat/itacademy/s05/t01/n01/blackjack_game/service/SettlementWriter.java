@@ -0,0 +1,112 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the payouts of finished games to the players table.
+ * <p>
+ * Results are added up per player in memory and written on an interval, or as soon as a batch
+ * fills up, with one multi-row UPDATE per batch. A player who finishes several rounds between
+ * two flushes costs a single row update. Failed batches are put back and retried on the next flush.
+ */
+@Component
+public class SettlementWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementWriter.class);
+
+    private final PlayerRepository playerRepository;
+    private final Leaderboard leaderboard;
+    private final BlackjackProperties.Settlement properties;
+    private final Map<String, ScoreDelta> pending = new ConcurrentHashMap<>();
+    private final Sinks.Many<Long> flushRequests = Sinks.many().multicast().directBestEffort();
+    private Disposable flusher;
+
+    @Autowired
+    public SettlementWriter(PlayerRepository playerRepository, Leaderboard leaderboard, BlackjackProperties properties) {
+        this.playerRepository = playerRepository;
+        this.leaderboard = leaderboard;
+        this.properties = properties.getSettlement();
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Flux.merge(Flux.interval(properties.getFlushInterval()), flushRequests.asFlux())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().block(properties.getShutdownTimeout());
+    }
+
+    public void settle(Game game) {
+        for (PlayerState playerState : game.getPlayersState()) {
+            if (playerState.getPayout() != null) {
+                pending.merge(playerState.getPlayerId(), ScoreDelta.of(playerState), ScoreDelta::plus);
+            }
+        }
+        if (pending.size() >= properties.getBatchSize()) {
+            // Best effort: if a flush is being requested concurrently, the interval picks it up
+            flushRequests.tryEmitNext(System.nanoTime());
+        }
+    }
+
+    public Mono<Void> flush() {
+        List<ScoreDelta> deltas = new ArrayList<>();
+        for (String playerId : pending.keySet()) {
+            ScoreDelta delta = pending.remove(playerId);
+            if (delta != null) {
+                deltas.add(delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return Flux.fromIterable(batches(deltas, properties.getBatchSize()))
+                .concatMap(batch -> playerRepository.applyScoreDeltas(batch)
+                        .doOnNext(rows -> batch.forEach(leaderboard::addScore))
+                        .onErrorResume(error -> {
+                            log.warn("Settlement of {} players failed, will retry: {}", batch.size(), error.getMessage());
+                            batch.forEach(delta -> pending.merge(delta.getPlayerId(), delta, ScoreDelta::plus));
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    int pendingPlayers() {
+        return pending.size();
+    }
+
+    private static List<List<ScoreDelta>> batches(List<ScoreDelta> deltas, int batchSize) {
+        List<List<ScoreDelta>> batches = new ArrayList<>();
+        for (int from = 0; from < deltas.size(); from += batchSize) {
+            batches.add(deltas.subList(from, Math.min(from + batchSize, deltas.size())));
+        }
+        return batches;
+    }
+}
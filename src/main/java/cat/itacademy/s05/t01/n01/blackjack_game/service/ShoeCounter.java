@@ -0,0 +1,45 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the cards dealt and the shoes played down to their cut card. A game keeps its own counts
+ * while a move is applied, and they are added here once the game is saved, so a move that loses
+ * a version conflict and is replayed is only counted once. Games are saved from every lane at
+ * once, so the counts are striped rather than a single contended value.
+ */
+@Component
+public class ShoeCounter implements MeterBinder {
+
+    private final LongAdder cardsDealt = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public void recordSaved(Game saved) {
+        cardsDealt.add(saved.getCardsDealt());
+        exhausted.add(saved.getShoesExhausted());
+    }
+
+    public long getCardsDealt() {
+        return cardsDealt.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("blackjack.cards.dealt", cardsDealt, LongAdder::sum)
+                .description("Cards dealt to players and dealers")
+                .register(registry);
+        FunctionCounter.builder("blackjack.shoe.exhausted", exhausted, LongAdder::sum)
+                .description("Shoes that reached their cut card and were reshuffled")
+                .register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Picks the seed every new shoe is shuffled from. The card order only depends on the seed, which
+ * is stored with the shoe, so any shoe can be dealt again from it. The implementations differ in
+ * where the seeds come from, chosen with {@code blackjack.shoe.shuffler}.
+ */
+public interface Shuffler {
+
+    long nextSeed();
+
+    /**
+     * The shoe shuffled when the cut card comes out, without the cards in play. A replay overrides
+     * it to hand back the shoes that were recorded.
+     */
+    default Shoe newShoe(int decks, CardList inPlay, IntUnaryOperator cutCardPosition) {
+        return Shoe.fromSeed(nextSeed(), decks, inPlay, cutCardPosition);
+    }
+
+    /** Seeds from the calling thread's generator, without any shared state between threads. */
+    static Shuffler fast() {
+        return () -> ThreadLocalRandom.current().nextLong();
+    }
+
+    /** The same sequence of seeds on every run, for tests and replays. */
+    static Shuffler seeded(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return () -> {
+            synchronized (random) {
+                return random.nextLong();
+            }
+        };
+    }
+
+    /** Seeds nobody can predict from the shoes dealt before. */
+    static Shuffler secure() {
+        SecureRandom random = new SecureRandom();
+        return random::nextLong;
+    }
+}
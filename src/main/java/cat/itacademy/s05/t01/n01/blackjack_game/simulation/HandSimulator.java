@@ -0,0 +1,146 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.simulation;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.BlackjackRules;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays heads-up hands, one player against the dealer, by the rules in {@link BlackjackRules}.
+ * <p>
+ * The shoe is an array of card codes shuffled in place with the simulator's own random source,
+ * and hands are scored from primitives only, so playing a hand allocates nothing. A simulator is
+ * not thread-safe: every simulation task owns one, with a random source split from the run's.
+ * Like a real table, the shoe is reshuffled between hands once the cut card has come out.
+ */
+public final class HandSimulator {
+
+    private static final int[] HARD_VALUES = new int[Card.RANKS * Card.SUITS];
+    private static final boolean[] ACES = new boolean[Card.RANKS * Card.SUITS];
+
+    static {
+        for (int code = 0; code < HARD_VALUES.length; code++) {
+            Card card = Card.of((byte) code);
+            HARD_VALUES[code] = card.getHardValue();
+            ACES[code] = card.isAce();
+        }
+    }
+
+    private final byte[] shoe;
+    private final int cutCard;
+    private final int bet;
+    private final PlayStrategy strategy;
+    private final SplittableRandom random;
+    private int cursor;
+
+    public HandSimulator(int decks, int cutCard, int bet, PlayStrategy strategy, SplittableRandom random) {
+        this.shoe = new byte[decks * HARD_VALUES.length];
+        for (int i = 0; i < shoe.length; i++) {
+            shoe[i] = (byte) (i % HARD_VALUES.length);
+        }
+        this.cutCard = cutCard;
+        this.bet = bet;
+        this.strategy = strategy;
+        this.random = random;
+        shuffle();
+    }
+
+    public HandTally play(long hands, HandTally tally) {
+        for (long i = 0; i < hands; i++) {
+            playHand(tally);
+        }
+        return tally;
+    }
+
+    public void playHand(HandTally tally) {
+        if (cursor >= cutCard) {
+            shuffle();
+        }
+
+        // Two cards to the player, then two to the dealer, as at the table
+        int card = draw();
+        int hardTotal = HARD_VALUES[card];
+        int aces = ACES[card] ? 1 : 0;
+        card = draw();
+        hardTotal += HARD_VALUES[card];
+        aces += ACES[card] ? 1 : 0;
+        int cards = 2;
+
+        int upCard = draw();
+        int dealerHardTotal = HARD_VALUES[upCard];
+        int dealerAces = ACES[upCard] ? 1 : 0;
+        card = draw();
+        dealerHardTotal += HARD_VALUES[card];
+        dealerAces += ACES[card] ? 1 : 0;
+        int dealerCards = 2;
+        int upCardValue = ACES[upCard] ? 11 : HARD_VALUES[upCard];
+
+        int handBet = bet;
+        boolean surrendered = false;
+        while (true) {
+            PlayerAction action = strategy.decide(hardTotal, aces, cards, upCardValue);
+            if (action == PlayerAction.SURRENDERED) {
+                surrendered = true;
+                tally.surrenders++;
+                break;
+            }
+            if (action != PlayerAction.HIT && action != PlayerAction.DOUBLED_DOWN) {
+                break;
+            }
+            if (action == PlayerAction.DOUBLED_DOWN) {
+                handBet = BlackjackRules.doubledBet(handBet, 0);
+                tally.doubles++;
+            }
+            card = draw();
+            hardTotal += HARD_VALUES[card];
+            aces += ACES[card] ? 1 : 0;
+            cards++;
+            if (action == PlayerAction.DOUBLED_DOWN || CardUtils.isBust(hardTotal)) {
+                break;
+            }
+        }
+
+        boolean bust = CardUtils.isBust(hardTotal);
+        // A busted hand ends the round before the dealer plays
+        if (!bust) {
+            while (BlackjackRules.dealerDraws(dealerHardTotal, dealerAces)) {
+                card = draw();
+                dealerHardTotal += HARD_VALUES[card];
+                dealerAces += ACES[card] ? 1 : 0;
+                dealerCards++;
+            }
+        }
+
+        if (bust) {
+            tally.playerBusts++;
+        } else if (CardUtils.isBust(dealerHardTotal)) {
+            tally.dealerBusts++;
+        }
+        if (!surrendered && CardUtils.isBlackjack(cards, hardTotal, aces)) {
+            tally.blackjacks++;
+        }
+        tally.record(surrendered
+                ? BlackjackRules.surrenderPayout(handBet)
+                : BlackjackRules.payout(handBet, cards, hardTotal, aces, dealerCards, dealerHardTotal, dealerAces));
+    }
+
+    private int draw() {
+        if (cursor == shoe.length) {
+            shuffle();
+        }
+        return shoe[cursor++];
+    }
+
+    // Fisher-Yates over the whole shoe
+    private void shuffle() {
+        for (int i = shoe.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte swap = shoe[i];
+            shoe[i] = shoe[j];
+            shoe[j] = swap;
+        }
+        cursor = 0;
+    }
+}
@@ -0,0 +1,56 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.simulation;
+
+/**
+ * Running totals of simulated hands. Each simulation task fills its own tally, and the tallies
+ * are merged once every task is done.
+ */
+public final class HandTally {
+
+    long hands;
+    long payoutSum;
+    long payoutSquares;
+    long wins;
+    long pushes;
+    long losses;
+    long blackjacks;
+    long playerBusts;
+    long dealerBusts;
+    long doubles;
+    long surrenders;
+
+    void record(int payout) {
+        hands++;
+        payoutSum += payout;
+        payoutSquares += (long) payout * payout;
+        if (payout > 0) {
+            wins++;
+        } else if (payout == 0) {
+            pushes++;
+        } else {
+            losses++;
+        }
+    }
+
+    public HandTally merge(HandTally other) {
+        hands += other.hands;
+        payoutSum += other.payoutSum;
+        payoutSquares += other.payoutSquares;
+        wins += other.wins;
+        pushes += other.pushes;
+        losses += other.losses;
+        blackjacks += other.blackjacks;
+        playerBusts += other.playerBusts;
+        dealerBusts += other.dealerBusts;
+        doubles += other.doubles;
+        surrenders += other.surrenders;
+        return this;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public long getPayoutSum() {
+        return payoutSum;
+    }
+}
@@ -0,0 +1,81 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.simulation;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+
+/**
+ * How a simulated player plays a hand, from its hard total, aces and number of cards and the
+ * dealer's up card (2 to 11, an ace counting 11). Decisions are plain table lookups returning
+ * {@link PlayerAction#HIT}, {@link PlayerAction#STANDING}, {@link PlayerAction#DOUBLED_DOWN} or
+ * {@link PlayerAction#SURRENDERED}.
+ */
+public enum PlayStrategy {
+
+    /**
+     * Basic strategy for a multi-deck shoe where the dealer stands on soft 17, without splits.
+     * Doubles and surrenders are only taken on the first two cards.
+     */
+    BASIC {
+        @Override
+        public PlayerAction decide(int hardTotal, int aces, int cards, int dealerUpCard) {
+            boolean firstTwo = cards == 2;
+            int total = CardUtils.handValue(hardTotal, aces);
+            if (CardUtils.isSoft(hardTotal, aces)) {
+                if (total >= 19) {
+                    return PlayerAction.STANDING;
+                }
+                if (total == 18) {
+                    if (firstTwo && dealerUpCard >= 3 && dealerUpCard <= 6) {
+                        return PlayerAction.DOUBLED_DOWN;
+                    }
+                    return dealerUpCard <= 8 ? PlayerAction.STANDING : PlayerAction.HIT;
+                }
+                // Lowest up card a soft total doubles against; two aces are never doubled
+                int doubleFrom = switch (total) {
+                    case 13, 14 -> 5;
+                    case 15, 16 -> 4;
+                    case 17 -> 3;
+                    default -> 7;
+                };
+                return firstTwo && dealerUpCard >= doubleFrom && dealerUpCard <= 6
+                        ? PlayerAction.DOUBLED_DOWN : PlayerAction.HIT;
+            }
+            if (total >= 17) {
+                return PlayerAction.STANDING;
+            }
+            if (firstTwo && (total == 16 && dealerUpCard >= 9 || total == 15 && dealerUpCard == 10)) {
+                return PlayerAction.SURRENDERED;
+            }
+            if (total >= 13) {
+                return dealerUpCard <= 6 ? PlayerAction.STANDING : PlayerAction.HIT;
+            }
+            if (total == 12) {
+                return dealerUpCard >= 4 && dealerUpCard <= 6 ? PlayerAction.STANDING : PlayerAction.HIT;
+            }
+            if (firstTwo && (total == 11 && dealerUpCard <= 10
+                    || total == 10 && dealerUpCard <= 9
+                    || total == 9 && dealerUpCard >= 3 && dealerUpCard <= 6)) {
+                return PlayerAction.DOUBLED_DOWN;
+            }
+            return PlayerAction.HIT;
+        }
+    },
+
+    /** Plays like the dealer: draws to 16 and stands on any 17. */
+    MIMIC_DEALER {
+        @Override
+        public PlayerAction decide(int hardTotal, int aces, int cards, int dealerUpCard) {
+            return CardUtils.handValue(hardTotal, aces) < 17 ? PlayerAction.HIT : PlayerAction.STANDING;
+        }
+    },
+
+    /** Only draws while no card can bust the hand. */
+    NEVER_BUST {
+        @Override
+        public PlayerAction decide(int hardTotal, int aces, int cards, int dealerUpCard) {
+            return hardTotal <= 11 ? PlayerAction.HIT : PlayerAction.STANDING;
+        }
+    };
+
+    public abstract PlayerAction decide(int hardTotal, int aces, int cards, int dealerUpCard);
+}
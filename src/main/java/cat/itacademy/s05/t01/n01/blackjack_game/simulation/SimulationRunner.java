@@ -0,0 +1,141 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.simulation;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs Monte Carlo simulations on a pool of its own, away from the request and game lane threads.
+ * <p>
+ * A run is cut into a few chunks per thread so that cores finishing early pick up the remaining
+ * work. Every chunk plays on its own {@link HandSimulator} and shoe, with a random source split
+ * from the run's, so no state is shared until the tallies are merged. Given a seed, the chunks
+ * and their random sources are the same on every run, and so are the results.
+ * <p>
+ * Only {@code blackjack.simulation.max-runs} runs are played at once and further requests are
+ * refused. A run whose caller goes away is cancelled: its chunks stop at their next slice of
+ * hands, and its place is given back once they have all stopped.
+ */
+@Component
+public class SimulationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationRunner.class);
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    // Hands a chunk plays between checks for cancellation
+    private static final int SLICE_HANDS = 10_000;
+
+    private final BlackjackProperties properties;
+    private final ForkJoinPool pool;
+    private final Semaphore runs;
+
+    @Autowired
+    public SimulationRunner(BlackjackProperties properties) {
+        this.properties = properties;
+        int parallelism = properties.getSimulation().getParallelism();
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.runs = new Semaphore(properties.getSimulation().getMaxRuns());
+    }
+
+    public Mono<SimulationResult> run(SimulationRequest request) {
+        return Mono.defer(() -> {
+            long maxHands = properties.getSimulation().getMaxHands();
+            if (request.getHands() < 1 || request.getHands() > maxHands) {
+                return Mono.error(new IllegalArgumentException("Between 1 and " + maxHands + " hands can be simulated at once"));
+            }
+            int decks = request.getDecks() != null ? request.getDecks() : properties.getShoe().getDecks();
+            if (decks < 1) {
+                return Mono.error(new IllegalArgumentException("The shoe needs at least one deck"));
+            }
+            double penetration = request.getPenetration() != null
+                    ? request.getPenetration() : properties.getShoe().getPenetration();
+            if (!(penetration > 0 && penetration <= 1)) {
+                return Mono.error(new IllegalArgumentException("Penetration must be above 0 and at most 1"));
+            }
+            PlayStrategy strategy = request.getStrategy() != null ? request.getStrategy() : PlayStrategy.BASIC;
+            if (!runs.tryAcquire()) {
+                return Mono.error(new IllegalStateException("Too many simulations are running, try again later"));
+            }
+            // fromFuture cancels the future when the subscription is cancelled, which stops the chunks
+            return Mono.fromFuture(() -> simulate(request.getHands(), decks, penetration, strategy, request.getSeed()));
+        });
+    }
+
+    private CompletableFuture<SimulationResult> simulate(long hands, int decks, double penetration,
+                                                         PlayStrategy strategy, Long seed) {
+        long start = System.nanoTime();
+        int shoeSize = decks * Card.RANKS * Card.SUITS;
+        int cutCard = (int) Math.round(shoeSize * penetration);
+        int bet = properties.getSettlement().getBaseBet();
+        SplittableRandom root = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+
+        int chunks = (int) Math.min(hands, (long) pool.getParallelism() * CHUNKS_PER_THREAD);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<CompletableFuture<HandTally>> tallies = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long chunkHands = hands / chunks + (i < hands % chunks ? 1 : 0);
+            SplittableRandom random = root.split();
+            tallies.add(CompletableFuture.supplyAsync(
+                    () -> play(new HandSimulator(decks, cutCard, bet, strategy, random), chunkHands, cancelled),
+                    pool));
+        }
+
+        CompletableFuture<Void> chunksDone = CompletableFuture.allOf(tallies.toArray(CompletableFuture[]::new));
+        // The run's place is only free once no chunk is playing any more, cancelled or not
+        chunksDone.whenComplete((done, error) -> runs.release());
+        CompletableFuture<SimulationResult> run = chunksDone.thenApply(done -> {
+            HandTally total = new HandTally();
+            tallies.forEach(tally -> total.merge(tally.join()));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            SimulationResult result = toResult(total, strategy, decks, bet, elapsedMillis);
+            log.info("Simulated hands={} strategy={} decks={} ev={} in {} ms",
+                    hands, strategy, decks, result.getExpectedValue(), elapsedMillis);
+            return result;
+        });
+        run.whenComplete((result, error) -> {
+            if (run.isCancelled()) {
+                cancelled.set(true);
+            }
+        });
+        return run;
+    }
+
+    private static HandTally play(HandSimulator simulator, long hands, AtomicBoolean cancelled) {
+        HandTally tally = new HandTally();
+        for (long left = hands; left > 0 && !cancelled.get(); left -= SLICE_HANDS) {
+            simulator.play(Math.min(left, SLICE_HANDS), tally);
+        }
+        return tally;
+    }
+
+    private static SimulationResult toResult(HandTally tally, PlayStrategy strategy, int decks, int bet,
+                                             long elapsedMillis) {
+        double hands = tally.hands;
+        double mean = tally.payoutSum / hands / bet;
+        double variance = tally.payoutSquares / hands / ((double) bet * bet) - mean * mean;
+        return new SimulationResult(tally.hands, strategy, decks, mean, variance,
+                tally.wins / hands, tally.pushes / hands, tally.losses / hands, tally.blackjacks / hands,
+                tally.playerBusts / hands, tally.dealerBusts / hands, tally.doubles / hands,
+                tally.surrenders / hands, elapsedMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
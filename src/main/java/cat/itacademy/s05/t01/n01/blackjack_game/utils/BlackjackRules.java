@@ -0,0 +1,52 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.utils;
+
+/**
+ * The table rules as pure functions over the primitives a hand is scored from: the hard total,
+ * the number of aces and the number of cards. They neither allocate nor touch a game, so the
+ * game engine and the simulator in {@code simulation} play by exactly the same rules.
+ */
+public class BlackjackRules {
+
+    // The dealer draws to 16 and stands on every 17, soft ones included
+    public static final int DEALER_STANDS_ON = 17;
+
+    public static boolean dealerDraws(int dealerHardTotal, int dealerAces) {
+        return CardUtils.handValue(dealerHardTotal, dealerAces) < DEALER_STANDS_ON;
+    }
+
+    // Bet after doubling down: the extra stake is the amount asked for, up to the original bet
+    public static int doubledBet(int bet, int amountBet) {
+        int extraBet = amountBet > 0 && amountBet < bet ? amountBet : bet;
+        return bet + extraBet;
+    }
+
+    public static int surrenderPayout(int bet) {
+        return -bet / 2;
+    }
+
+    /**
+     * Net result of a hand that was played out, against the dealer's final hand. A win pays the
+     * bet, a natural blackjack pays 3:2, a push pays nothing, and a bust loses even when the
+     * dealer busts too.
+     */
+    public static int payout(int bet, int cards, int hardTotal, int aces,
+                             int dealerCards, int dealerHardTotal, int dealerAces) {
+        if (CardUtils.isBust(hardTotal)) {
+            return -bet;
+        }
+        boolean blackjack = CardUtils.isBlackjack(cards, hardTotal, aces);
+        boolean dealerBlackjack = CardUtils.isBlackjack(dealerCards, dealerHardTotal, dealerAces);
+        if (blackjack || dealerBlackjack) {
+            if (blackjack && dealerBlackjack) {
+                return 0;
+            }
+            return blackjack ? bet * 3 / 2 : -bet;
+        }
+        int score = CardUtils.handValue(hardTotal, aces);
+        int dealerScore = CardUtils.handValue(dealerHardTotal, dealerAces);
+        if (CardUtils.isBust(dealerHardTotal) || score > dealerScore) {
+            return bet;
+        }
+        return score == dealerScore ? 0 : -bet;
+    }
+}
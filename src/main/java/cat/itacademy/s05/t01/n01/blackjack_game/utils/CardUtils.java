@@ -1,53 +1,91 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.utils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class CardUtils {
 
-    public static List<String> createShuffledDeck(int numberOfDecks) {
-        List<String> deck = new ArrayList<>();
-        String[] suits = {"H", "D", "C", "S"};
-        String[] values = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+    public static CardList createShuffledDeck(int numberOfDecks) {
+        return createShuffledDeck(numberOfDecks, ThreadLocalRandom.current().nextLong());
+    }
 
-        for (int i = 0; i < numberOfDecks; i++) {
-            for (String suit : suits) {
-                for (String value : values) {
-                    deck.add(value + suit);
-                }
-            }
+    /**
+     * Shuffles the given number of decks with a generator seeded from {@code seed}. The order only
+     * depends on the seed, so a shoe can be rebuilt from its seed instead of being stored.
+     */
+    public static CardList createShuffledDeck(int numberOfDecks, long seed) {
+        byte[] codes = new byte[numberOfDecks * Card.RANKS * Card.SUITS];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (i % (Card.RANKS * Card.SUITS));
         }
 
-        Collections.shuffle(deck);
-        return deck;
+        // Fisher-Yates on the card codes
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = codes.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte swap = codes[i];
+            codes[i] = codes[j];
+            codes[j] = swap;
+        }
+        return CardList.fromBytes(codes);
     }
 
-    public static int calculateHandValue(List<String> hand) {
-        int value = 0;
-        int aces = 0;
+    // Same as above, leaving out one copy of every card still on the table
+    public static CardList createShuffledDeck(int numberOfDecks, long seed, CardList cardsInPlay) {
+        CardList deck = createShuffledDeck(numberOfDecks, seed);
+        if (cardsInPlay == null || cardsInPlay.isEmpty()) {
+            return deck;
+        }
 
-        for (String card : hand) {
-            String rank = card.substring(0, card.length() - 1);
-            switch (rank) {
-                case "J":
-                case "Q":
-                case "K":
-                    value += 10;
-                    break;
-                case "A":
-                    aces++;
-                    value += 11;
-                    break;
-                default:
-                    value += Integer.parseInt(rank);
-                    break;
+        int[] inPlay = new int[Card.RANKS * Card.SUITS];
+        for (int i = 0; i < cardsInPlay.size(); i++) {
+            inPlay[cardsInPlay.get(i).getCode()]++;
+        }
+
+        CardList remaining = new CardList(deck.size());
+        for (int i = 0; i < deck.size(); i++) {
+            Card card = deck.get(i);
+            if (inPlay[card.getCode()] > 0) {
+                inPlay[card.getCode()]--;
+            } else {
+                remaining.add(card);
             }
         }
-        while (value > 21 && aces > 0) {
-            value -= 10;
-            aces--;
+        return remaining;
+    }
+
+    public static int calculateHandValue(CardList hand) {
+        int hardTotal = 0;
+        int aces = 0;
+
+        for (int i = 0; i < hand.size(); i++) {
+            Card card = hand.get(i);
+            hardTotal += card.getHardValue();
+            if (card.isAce()) {
+                aces++;
+            }
         }
-        return value;
+        return handValue(hardTotal, aces);
+    }
+
+    // Hands are scored incrementally from two primitives: the hard total (every ace counted as 1)
+    // and the number of aces. At most one ace can ever count as 11 without busting.
+    public static int handValue(int hardTotal, int aces) {
+        return isSoft(hardTotal, aces) ? hardTotal + 10 : hardTotal;
+    }
+
+    public static boolean isSoft(int hardTotal, int aces) {
+        return aces > 0 && hardTotal + 10 <= 21;
+    }
+
+    public static boolean isBust(int hardTotal) {
+        return hardTotal > 21;
+    }
+
+    public static boolean isBlackjack(int cardCount, int hardTotal, int aces) {
+        return cardCount == 2 && handValue(hardTotal, aces) == 21;
     }
 }
@@ -0,0 +1,22 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.utils;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+
+public class SettlementUtils {
+
+    /**
+     * Net result of a finished hand against the dealer's final hand, in score points, by the
+     * rules in {@link BlackjackRules}. A surrender loses half the bet.
+     */
+    public static int payout(PlayerState playerState, Game game) {
+        if (playerState.getAction() == PlayerAction.SURRENDERED) {
+            return BlackjackRules.surrenderPayout(playerState.getBet());
+        }
+        int dealerCards = game.getDealerHand() == null ? 0 : game.getDealerHand().size();
+        return BlackjackRules.payout(playerState.getBet(), playerState.getPlayerHand().size(),
+                playerState.getHardTotal(), playerState.getAces(),
+                dealerCards, game.getDealerHardTotal(), game.getDealerAces());
+    }
+}
@@ -0,0 +1,45 @@
+package cat.itacademy.s05.t01.n01.blackjack_game;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.validation.BindValidationException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlackjackPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfiguration.class);
+
+    @Test
+    public void testPenetrationInRangeIsBound() {
+        contextRunner.withPropertyValues("blackjack.shoe.penetration=1").run(context -> {
+            assertNull(context.getStartupFailure());
+            assertEquals(1.0, context.getBean(BlackjackProperties.class).getShoe().getPenetration());
+        });
+    }
+
+    @Test
+    public void testPenetrationOutOfRangeStopsStartup() {
+        for (String penetration : new String[]{"0", "-0.5", "1.5"}) {
+            contextRunner.withPropertyValues("blackjack.shoe.penetration=" + penetration)
+                    .run(context -> assertInstanceOf(BindValidationException.class,
+                            NestedExceptionUtils.getRootCause(context.getStartupFailure()), penetration));
+        }
+    }
+
+    @Test
+    public void testNoSimulationRunsStopsStartup() {
+        contextRunner.withPropertyValues("blackjack.simulation.max-runs=0")
+                .run(context -> assertInstanceOf(BindValidationException.class,
+                        NestedExceptionUtils.getRootCause(context.getStartupFailure())));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(BlackjackProperties.class)
+    static class PropertiesConfiguration {
+    }
+}
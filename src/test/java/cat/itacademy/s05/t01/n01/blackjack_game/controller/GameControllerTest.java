@@ -1,5 +1,6 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.controller;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveRequest;
 import cat.itacademy.s05.t01.n01.blackjack_game.service.GameService;
@@ -129,8 +130,7 @@ public class GameControllerTest {
         Game mockGame = new Game();
         mockGame.setId(gameId);
         mockGame.setGameState(GameState.ONGOING);
-        mockGame.setDealerScore(10);
-        mockGame.setDealerHand(List.of("2H", "3D"));
+        mockGame.setDealerHand(CardList.of("2H", "3D"));
 
         when(gameService.makeMove(anyString(), anyString(), any(PlayerAction.class), anyInt())).thenReturn(Mono.just(mockGame));
 
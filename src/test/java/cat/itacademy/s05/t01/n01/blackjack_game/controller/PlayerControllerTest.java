@@ -36,7 +36,7 @@ public class PlayerControllerTest {
         Player player2 = new Player("Player2", 150);
         Player player3 = new Player("Player3", 120);
 
-        when(gameService.getPlayerRankings()).thenReturn(Flux.just(player2, player3, player1));
+        when(gameService.getPlayerRankings(0, 20)).thenReturn(Flux.just(player2, player3, player1));
 
         webTestClient.get().uri("/player/ranking")
                 .exchange()
@@ -0,0 +1,119 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardListTest {
+
+    @Test
+    public void testCardRoundTripsThroughLabelAndCode() {
+        for (int rank = 0; rank < Card.RANKS; rank++) {
+            for (int suit = 0; suit < Card.SUITS; suit++) {
+                Card card = Card.of(rank, suit);
+                assertSame(card, Card.parse(card.toString()));
+                assertSame(card, Card.of(card.getCode()));
+            }
+        }
+        assertEquals(10, Card.parse("KS").getValue());
+        assertEquals(11, Card.parse("AH").getValue());
+        assertEquals(Card.parse("10C"), Card.parse("TC"));
+    }
+
+    @Test
+    public void testAddAndRemoveKeepOrder() {
+        CardList cards = CardList.of("9C", "2D", "5H");
+
+        assertEquals(Card.parse("9C"), cards.remove(0));
+        cards.add(Card.parse("AS"));
+
+        assertEquals(List.of(Card.parse("2D"), Card.parse("5H"), Card.parse("AS")), cards);
+        assertArrayEquals(new byte[]{Card.parse("2D").getCode(), Card.parse("5H").getCode(), Card.parse("AS").getCode()},
+                cards.toByteArray());
+    }
+
+    @Test
+    public void testJsonUsesCardLabels() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        String json = objectMapper.writeValueAsString(CardList.of("10H", "AS"));
+
+        assertEquals("[\"10H\",\"AS\"]", json);
+        assertEquals(CardList.of("10H", "AS"), objectMapper.readValue(json, CardList.class));
+    }
+
+    @Test
+    public void testMongoStoresHandsAsBinary() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        // Java time types are stored as dates, as the auto-configured context does
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("2H", "KD"));
+
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H"), 2));
+        game.getDeck().deal();
+        game.setDealerHand(CardList.of("10H"));
+        game.setPlayersState(new ArrayList<>(List.of(playerState)));
+
+        Document document = new Document();
+        converter.write(game, document);
+
+        Document deck = (Document) document.get("deck");
+        assertInstanceOf(Binary.class, deck.get("cards"));
+        assertEquals(3, ((Binary) deck.get("cards")).length());
+        assertEquals(1, deck.get("cursor"));
+
+        Game read = converter.read(Game.class, document);
+
+        assertEquals(game.getDeck().getCards(), read.getDeck().getCards());
+        assertEquals(1, read.getDeck().getCursor());
+        assertEquals(2, read.getDeck().getCutCard());
+        assertEquals(game.getDealerHand(), read.getDealerHand());
+        assertEquals(playerState.getPlayerHand(), read.getPlayersState().getFirst().getPlayerHand());
+    }
+
+    @Test
+    public void testMongoStoresSeededShoeAsItsSeed() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        // Java time types are stored as dates, as the auto-configured context does
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        Game game = new Game();
+        game.setId("game123");
+        game.setDeck(Shoe.fromSeed(99L, 6, CardList.of("AS", "KD"), size -> size - 60));
+        game.getDeck().deal();
+
+        Document document = new Document();
+        converter.write(game, document);
+
+        Document deck = (Document) document.get("deck");
+        assertFalse(deck.containsKey("cards"));
+        assertEquals(99L, deck.get("seed"));
+        assertEquals(2, ((Binary) deck.get("inPlay")).length());
+
+        Game read = converter.read(Game.class, document);
+
+        assertEquals(game.getDeck().getCards(), read.getDeck().getCards());
+        assertEquals(310, read.getDeck().getCards().size());
+        assertEquals(250, read.getDeck().getCutCard());
+        assertEquals(game.getDeck().getCards().get(1), read.getDeck().deal());
+    }
+}
@@ -0,0 +1,58 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveResultTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testMoveResultCarriesOnlyTheChanges() throws Exception {
+        Game game = createGame();
+        Card card = game.getDeck().deal();
+        game.getPlayersState().getFirst().addCard(card);
+        game.recordEvent(GameEvent.cardDealt(game.getId(), "1", card, game.getPlayersState().getFirst().getScore()));
+
+        JsonNode json = objectMapper.valueToTree(MoveResult.of(game));
+
+        assertEquals(4, json.size());
+        assertEquals(3, json.get("version").asLong());
+        assertEquals("ONGOING", json.get("gameState").asText());
+        assertEquals(1, json.get("changes").size());
+        JsonNode change = json.get("changes").get(0);
+        assertEquals("CARD_DEALT", change.get("type").asText());
+        assertEquals(card.toString(), change.get("card").asText());
+        assertFalse(change.has("payout"));
+
+        String full = objectMapper.writeValueAsString(game);
+        assertTrue(objectMapper.writeValueAsString(MoveResult.of(game)).length() < full.length());
+    }
+
+    @Test
+    public void testShoeIsNeverSerialized() {
+        JsonNode json = objectMapper.valueToTree(createGame());
+
+        assertFalse(json.has("deck"));
+        assertTrue(json.has("dealerHand"));
+    }
+
+    private static Game createGame() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setVersion(3L);
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H", "KS", "7H")));
+        game.setDealerHand(CardList.of("10H"));
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("2H", "3D"));
+        game.setPlayersState(new ArrayList<>(List.of(playerState)));
+        return game;
+    }
+}
@@ -0,0 +1,203 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.replay;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.GameActionInteractor;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.ShoeCounter;
+import cat.itacademy.s05.t01.n01.blackjack_game.service.Shuffler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameReplayerTest {
+
+    private BlackjackProperties properties;
+
+    private GameActionInteractor gameActionInteractor;
+
+    private GameReplayer gameReplayer;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new BlackjackProperties();
+        // One deck with an early cut card, so the shoe is reshuffled several times in one round
+        properties.getShoe().setDecks(1);
+        properties.getShoe().setPenetration(0.15);
+        properties.getReplay().setParallelism(4);
+        gameActionInteractor = new GameActionInteractor(null, null, null, null, Shuffler.seeded(11),
+                new ShoeCounter(), ObservationRegistry.NOOP, properties);
+        gameReplayer = new GameReplayer(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gameReplayer.shutdown();
+    }
+
+    @Test
+    public void testReplayDealsEveryStateAsRecorded() {
+        List<Game> played = new ArrayList<>();
+        RecordedGame recorded = play("game123", played, "1", "2", "3");
+        assertFalse(recorded.getReshuffles().isEmpty());
+
+        GameReplay replay = gameReplayer.replay(recorded);
+
+        assertTrue(replay.isMatchingRecord(), replay.getDivergence());
+        assertEquals(played.size(), replay.getStates().size());
+        for (int i = 0; i < played.size(); i++) {
+            Game expected = played.get(i);
+            Game actual = replay.getStates().get(i);
+            assertEquals(expected.getVersion(), actual.getVersion());
+            assertEquals(expected.getGameState(), actual.getGameState());
+            assertEquals(expected.getDealerHand(), actual.getDealerHand());
+            for (int seat = 0; seat < expected.getPlayersState().size(); seat++) {
+                PlayerState expectedSeat = expected.getPlayersState().get(seat);
+                PlayerState actualSeat = actual.getPlayersState().get(seat);
+                assertEquals(expectedSeat.getPlayerHand(), actualSeat.getPlayerHand());
+                assertEquals(expectedSeat.getAction(), actualSeat.getAction());
+                assertEquals(expectedSeat.getBet(), actualSeat.getBet());
+                assertEquals(expectedSeat.getPayout(), actualSeat.getPayout());
+            }
+        }
+        assertEquals(GameState.FINISHED, replay.getFinalState().getGameState());
+    }
+
+    @Test
+    public void testSeedAndMovesReplayTheSameWayEveryTime() {
+        Shoe shoe = Shoe.fromSeed(99, 1, null, properties.getShoe()::cutCardPosition);
+        RecordedGame recorded = new RecordedGame("game123", Map.of("1", 10, "2", 10), shoe, List.of(),
+                List.of(new RecordedGame.Move("1", PlayerAction.STANDING, 0), new RecordedGame.Move("2", PlayerAction.STANDING, 0)));
+
+        GameReplay first = gameReplayer.replay(recorded);
+        GameReplay second = gameReplayer.replay(recorded);
+
+        assertNull(first.getDivergence());
+        assertEquals(first.getStates().size(), second.getStates().size());
+        assertEquals(first.getFinalState().getDealerHand(), second.getFinalState().getDealerHand());
+        assertEquals(first.getFinalState().getPlayersState().getFirst().getPlayerHand(),
+                second.getFinalState().getPlayersState().getFirst().getPlayerHand());
+    }
+
+    @Test
+    public void testBulkReplayReportsTheGamesThatNoLongerMatch() {
+        List<RecordedGame> games = IntStream.range(0, 200)
+                .mapToObj(i -> play("game" + i, null, "1", "2"))
+                .toList();
+        RecordedGame tampered = tamper(games.getFirst());
+
+        ReplaySummary summary = gameReplayer.replayAll(Stream.concat(games.stream(), Stream.of(tampered)));
+
+        assertEquals(201, summary.getGames());
+        assertEquals(1, summary.getDiverged());
+        assertTrue(summary.getSampleDivergences().getFirst().startsWith(tampered.getGameId() + ": version 0"));
+        assertEquals(summary.getRecordedPayout(), summary.getReplayedPayout());
+    }
+
+    @Test
+    public void testMoveTheReplayCannotMakeIsReported() {
+        RecordedGame played = play("game123", null, "1");
+        List<RecordedGame.Move> moves = new ArrayList<>(played.getMoves());
+        moves.add(new RecordedGame.Move("1", PlayerAction.HIT, 0));
+        RecordedGame recorded = new RecordedGame(played.getGameId(), played.getBets(), played.getShoe(),
+                played.getReshuffles(), moves);
+
+        GameReplay replay = gameReplayer.replay(recorded);
+
+        assertFalse(replay.isMatchingRecord());
+        assertTrue(replay.getDivergence().startsWith("move HIT by player 1 was rejected"));
+    }
+
+    // Plays a game the way the service does, recording its history as every move would be saved
+    private RecordedGame play(String gameId, List<Game> states, String... playerIds) {
+        Game game = new Game();
+        game.setId(gameId);
+        game.setGameState(GameState.ONGOING);
+        game.setDealerHand(new CardList());
+        List<PlayerState> playerStates = new ArrayList<>();
+        for (String playerId : playerIds) {
+            playerStates.add(new PlayerState(playerId));
+        }
+        game.setPlayersState(playerStates);
+        gameActionInteractor.initializeGame(game);
+        gameActionInteractor.dealOpeningHands(game);
+        stamp(game, 0, 0);
+        GameSnapshot opening = new GameSnapshot(game.copy());
+        if (states != null) {
+            states.add(game.copy());
+        }
+
+        boolean doubled = false;
+        while (game.getGameState() == GameState.ONGOING) {
+            PlayerState playing = game.getPlayersState().stream()
+                    .filter(playerState -> playerState.getAction() == PlayerAction.PLAYING)
+                    .findFirst()
+                    .orElseThrow();
+            PlayerAction action;
+            if (!doubled) {
+                action = PlayerAction.DOUBLED_DOWN;
+                doubled = true;
+            } else {
+                action = playing.getScore() < 16 ? PlayerAction.HIT : PlayerAction.STANDING;
+            }
+            int recordedBefore = game.getRecordedHistory().size();
+            gameActionInteractor.applyMove(game, playing.getPlayerId(), action, 10);
+            stamp(game, game.getVersion() + 1, recordedBefore);
+            if (states != null) {
+                states.add(game.copy());
+            }
+        }
+        return RecordedGame.fromHistory(opening, game.getRecordedHistory());
+    }
+
+    private static void stamp(Game game, long version, int from) {
+        game.setVersion(version);
+        List<GameHistoryEvent> history = game.getRecordedHistory();
+        for (int seq = from; seq < history.size(); seq++) {
+            history.get(seq).stamp(game.getId(), version, seq - from);
+        }
+    }
+
+    // The same game with the dealer's first card swapped for another one
+    private static RecordedGame tamper(RecordedGame recorded) {
+        List<GameHistoryEvent> history = new ArrayList<>(recorded.getHistory());
+        for (int i = 0; i < history.size(); i++) {
+            GameHistoryEvent event = history.get(i);
+            if (event.getType() == GameHistoryEvent.Type.DEALER_DREW) {
+                Card other = Card.parse(event.getCard().equals("2C") ? "3C" : "2C");
+                GameHistoryEvent tampered = GameHistoryEvent.dealerDrew(other);
+                tampered.stamp(event.getGameId(), event.getVersion(), event.getSeq());
+                history.set(i, tampered);
+                break;
+            }
+        }
+        Game game = new Game();
+        game.setId(recorded.getGameId());
+        List<PlayerState> playerStates = new ArrayList<>();
+        recorded.getBets().forEach((playerId, bet) -> {
+            PlayerState playerState = new PlayerState(playerId);
+            playerState.setBet(bet);
+            playerStates.add(playerState);
+        });
+        game.setPlayersState(playerStates);
+        game.setDeck(recorded.getShoe());
+        game.setVersion(0L);
+        return RecordedGame.fromHistory(new GameSnapshot(game), history);
+    }
+}
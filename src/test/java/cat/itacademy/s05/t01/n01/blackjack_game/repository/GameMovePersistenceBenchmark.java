@@ -0,0 +1,88 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compares the full-document save against the targeted move update on a live MongoDB.
+ * Not part of the regular test run:
+ * <pre>
+ * mvn test -Dtest=GameMovePersistenceBenchmark -Dbenchmark.mongodb.uri=mongodb://localhost:27017/blackjack_bench
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongodb.uri", matches = ".+")
+public class GameMovePersistenceBenchmark {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2_000;
+
+    private MongoClient mongoClient;
+    private ReactiveMongoTemplate mongoTemplate;
+    private GameRepositoryCustomImpl repository;
+
+    @BeforeEach
+    public void setUp() {
+        String uri = System.getProperty("benchmark.mongodb.uri");
+        mongoClient = MongoClients.create(uri);
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, uri.substring(uri.lastIndexOf('/') + 1));
+        repository = new GameRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mongoTemplate.dropCollection(Game.class).block();
+        mongoClient.close();
+    }
+
+    @Test
+    public void compareFullSaveWithMoveUpdate() {
+        Game game = GameRepositoryCustomImplTest.createGame();
+        game.setId(UUID.randomUUID().toString());
+        mongoTemplate.insert(game).block();
+        PlayerState playerState = game.getPlayersState().getFirst();
+
+        Document fullDocument = new Document();
+        mongoTemplate.getConverter().write(game, fullDocument);
+        Document moveUpdate = new UpdateMapper(mongoTemplate.getConverter()).getMappedObject(
+                GameRepositoryCustomImpl.moveUpdate(game, playerState).getUpdateObject(),
+                mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Game.class));
+
+        long[] saveNanos = measure(() -> mongoTemplate.save(game).block());
+        long[] moveNanos = measure(() -> repository.saveMove(game, playerState).block());
+
+        System.out.printf("full save   : %5d bytes, p50 %6.1f us, p99 %6.1f us%n",
+                GameRepositoryCustomImplTest.bsonSize(fullDocument), percentile(saveNanos, 50), percentile(saveNanos, 99));
+        System.out.printf("move update : %5d bytes, p50 %6.1f us, p99 %6.1f us%n",
+                GameRepositoryCustomImplTest.bsonSize(moveUpdate), percentile(moveNanos, 50), percentile(moveNanos, 99));
+    }
+
+    private static long[] measure(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        return sortedNanos[(sortedNanos.length - 1) * percentile / 100] / 1_000.0;
+    }
+}
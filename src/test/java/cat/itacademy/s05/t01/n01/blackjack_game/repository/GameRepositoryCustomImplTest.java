@@ -0,0 +1,157 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRepositoryCustomImplTest {
+
+    private MongoMappingContext mappingContext;
+    private MappingMongoConverter converter;
+    private UpdateMapper updateMapper;
+
+    @BeforeEach
+    public void setUp() {
+        mappingContext = new MongoMappingContext();
+        // Java time types are stored as dates, as the auto-configured context does
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        updateMapper = new UpdateMapper(converter);
+    }
+
+    @Test
+    public void testMoveUpdateOnlyTouchesActingSeatAndCursor() {
+        Game game = createGame();
+        PlayerState playerState = game.getPlayersState().getFirst();
+        playerState.addCard(game.getDeck().deal());
+
+        Document update = map(GameRepositoryCustomImpl.moveUpdate(game, playerState));
+
+        assertEquals(new Document("deck.cursor", 1), update.get("$inc"));
+        Document set = (Document) update.get("$set");
+        assertEquals(Binary.class, set.get("playersState.$.hand").getClass());
+        assertEquals(playerState.getScore(), set.get("playersState.$.score"));
+        assertEquals("PLAYING", set.get("playersState.$.action"));
+        assertFalse(set.containsKey("deck"));
+        assertFalse(set.containsKey("playersState"));
+    }
+
+    @Test
+    public void testRoundEndUpdateRewritesTableButNotShoe() {
+        Game game = createGame();
+        game.addDealerCard(game.getDeck().deal());
+        game.getPlayersState().getFirst().setAction(PlayerAction.STANDING);
+        game.setGameState(GameState.FINISHED);
+
+        Document set = (Document) map(GameRepositoryCustomImpl.roundEndUpdate(game)).get("$set");
+
+        assertEquals("FINISHED", set.get("gameState"));
+        assertEquals(2, ((List<?>) set.get("playersState")).size());
+        assertEquals(Binary.class, set.get("dealerHand").getClass());
+        assertFalse(set.containsKey("deck"));
+    }
+
+    @Test
+    public void testReplacedShoeIsWrittenWhole() {
+        Game game = createGame();
+        PlayerState playerState = game.getPlayersState().getFirst();
+        game.replaceDeck(new Shoe(CardList.of("2H", "3D")));
+        playerState.addCard(game.getDeck().deal());
+
+        Document update = map(GameRepositoryCustomImpl.moveUpdate(game, playerState));
+
+        assertNull(update.get("$inc"));
+        Document deck = (Document) ((Document) update.get("$set")).get("deck");
+        assertEquals(1, deck.get("cursor"));
+    }
+
+    @Test
+    public void testMoveUpdateIsAFractionOfTheFullDocument() {
+        Game game = createGame();
+        PlayerState playerState = game.getPlayersState().getFirst();
+        playerState.addCard(game.getDeck().deal());
+
+        Document fullDocument = new Document();
+        converter.write(game, fullDocument);
+        int fullBytes = bsonSize(fullDocument);
+        int moveBytes = bsonSize(map(GameRepositoryCustomImpl.moveUpdate(game, playerState)));
+
+        assertTrue(moveBytes * 3 < fullBytes,
+                "A move update of " + moveBytes + " bytes should be a small fraction of the " + fullBytes + " byte document");
+    }
+
+    @Test
+    public void testPageQueryStartsAfterTheCursorNewestFirst() {
+        Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        Query query = GameRepositoryCustomImpl.pageQuery(GameState.ONGOING, "1", new GameCursor(createdAt, "game123"), 50);
+
+        List<?> filters = (List<?>) query.getQueryObject().get("$and");
+        assertEquals(new Document("gameState", GameState.ONGOING), filters.get(0));
+        assertEquals(new Document("playersState.playerId", "1"), filters.get(1));
+        List<?> after = (List<?>) ((Document) filters.get(2)).get("$or");
+        assertEquals(new Document("createdAt", new Document("$lt", createdAt)), after.get(0));
+        assertEquals(new Document("createdAt", createdAt).append("_id", new Document("$lt", "game123")), after.get(1));
+        assertEquals(new Document("createdAt", null), after.get(2));
+        assertEquals(new Document("createdAt", -1).append("_id", -1), query.getSortObject());
+        assertEquals(50, query.getLimit());
+        assertFalse(query.getFieldsObject().containsKey("deck"));
+        assertTrue(query.getFieldsObject().containsKey("playersState.playerId"));
+    }
+
+    @Test
+    public void testPageQueryWithoutFiltersListsEveryGame() {
+        Query query = GameRepositoryCustomImpl.pageQuery(null, null, null, 10);
+
+        assertTrue(query.getQueryObject().isEmpty());
+        assertEquals(new Document("createdAt", -1).append("_id", -1), query.getSortObject());
+    }
+
+    private Document map(Update update) {
+        return updateMapper.getMappedObject(update.getUpdateObject(), mappingContext.getPersistentEntity(Game.class));
+    }
+
+    static int bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    static Game createGame() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardUtils.createShuffledDeck(6), 234));
+        game.setDealerHand(new CardList());
+        game.setPlayersState(new ArrayList<>(List.of(new PlayerState("1"), new PlayerState("2"))));
+        for (PlayerState playerState : game.getPlayersState()) {
+            playerState.addCard(game.getDeck().deal());
+            playerState.addCard(game.getDeck().deal());
+        }
+        game.addDealerCard(game.getDeck().deal());
+        game.getDeck().clearPendingDeals();
+        return game;
+    }
+}
@@ -0,0 +1,143 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class GameStoreTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    private Game storedGame;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        storedGame = GameRepositoryCustomImplTest.createGame();
+        storedGame.setVersion(0L);
+        when(gameRepository.findById(storedGame.getId())).thenReturn(Mono.just(storedGame));
+        when(gameRepository.saveSnapshot(any(Game.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void testOngoingGamesAreReadOnceAndHandedOutAsCopies() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_THROUGH);
+
+        Game first = store.findById(storedGame.getId()).block();
+        Game second = store.findById(storedGame.getId()).block();
+
+        assertNotSame(first, second);
+        assertNotSame(first.getPlayersState().getFirst().getPlayerHand(), second.getPlayersState().getFirst().getPlayerHand());
+        assertEquals(first.getDeck().getCursor(), second.getDeck().getCursor());
+        verify(gameRepository, times(1)).findById(storedGame.getId());
+    }
+
+    @Test
+    public void testFinishedGamesAreNotCached() {
+        storedGame.setGameState(GameState.FINISHED);
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_THROUGH);
+
+        store.findById(storedGame.getId()).block();
+        store.findById(storedGame.getId()).block();
+
+        verify(gameRepository, times(2)).findById(storedGame.getId());
+    }
+
+    @Test
+    public void testWriteThroughConflictDropsCachedGame() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_THROUGH);
+        Game game = store.findById(storedGame.getId()).block();
+        when(gameRepository.saveMove(same(game), any(PlayerState.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        StepVerifier.create(store.saveMove(game, game.getPlayersState().getFirst()))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        store.findById(storedGame.getId()).block();
+
+        verify(gameRepository, times(2)).findById(storedGame.getId());
+    }
+
+    @Test
+    public void testMovesBySeveralPlayersRewriteTheTable() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_THROUGH);
+        Game game = store.findById(storedGame.getId()).block();
+        game.getPlayersState().add(new PlayerState("2"));
+        when(gameRepository.saveTable(game)).thenReturn(Mono.just(game));
+
+        store.saveTable(game).block();
+        store.findById(storedGame.getId()).block();
+
+        verify(gameRepository).saveTable(game);
+        // The saved table replaced the cached game
+        verify(gameRepository, times(1)).findById(storedGame.getId());
+    }
+
+    @Test
+    public void testWriteBehindCoalescesMovesIntoOneWrite() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_BEHIND);
+
+        for (int i = 0; i < 2; i++) {
+            Game game = store.findById(storedGame.getId()).block();
+            PlayerState playerState = game.getPlayersState().getFirst();
+            playerState.addCard(game.getDeck().deal());
+            store.saveMove(game, playerState).block();
+        }
+        verify(gameRepository, never()).saveMove(any(Game.class), any(PlayerState.class));
+
+        store.flush().block();
+
+        ArgumentCaptor<Game> written = ArgumentCaptor.forClass(Game.class);
+        verify(gameRepository, times(1)).saveSnapshot(written.capture());
+        assertEquals(2L, written.getValue().getVersion());
+        assertEquals(4, written.getValue().getPlayersState().getFirst().getPlayerHand().size());
+        assertEquals(7, written.getValue().getDeck().getCursor());
+
+        store.flush().block();
+        verifyNoMoreInteractions(ignoreStubs(gameRepository));
+    }
+
+    @Test
+    public void testWriteBehindRejectsMoveOnStaleCopy() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_BEHIND);
+        Game stale = store.findById(storedGame.getId()).block();
+        Game current = store.findById(storedGame.getId()).block();
+
+        store.saveMove(current, current.getPlayersState().getFirst()).block();
+
+        StepVerifier.create(store.saveMove(stale, stale.getPlayersState().getFirst()))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @Test
+    public void testShutdownFlushesDirtyGames() {
+        GameStore store = store(BlackjackProperties.Cache.WriteMode.WRITE_BEHIND);
+        Game game = store.findById(storedGame.getId()).block();
+        store.saveMove(game, game.getPlayersState().getFirst()).block();
+
+        store.stop();
+
+        verify(gameRepository).saveSnapshot(game);
+    }
+
+    private GameStore store(BlackjackProperties.Cache.WriteMode writeMode) {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getCache().setWriteMode(writeMode);
+        return new GameStore(gameRepository, properties);
+    }
+}
@@ -0,0 +1,84 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LegacyGameMigrationTest {
+
+    @Test
+    public void testMigratedGameReadsAsItWasPlayed() {
+        Document document = legacyGame();
+
+        document.putAll(LegacyGameMigration.migration(document).getUpdateObject().get("$set", Document.class));
+        Game game = converter().read(Game.class, document);
+
+        PlayerState playerState = game.getPlayersState().getFirst();
+        assertEquals(CardList.of("AS", "6D"), playerState.getPlayerHand());
+        assertEquals(17, playerState.getScore());
+        assertTrue(playerState.isSoft());
+        assertEquals(PlayerAction.PLAYING, playerState.getAction());
+        assertEquals(CardList.of("10H"), game.getDealerHand());
+        assertEquals(10, game.getDealerScore());
+        assertEquals(CardList.of("9C", "2D", "5H"), game.getDeck().getCards());
+        assertEquals(3, game.getDeck().remaining());
+        assertEquals(0L, game.getVersion());
+    }
+
+    @Test
+    public void testOnlyLegacyGamesAreRewritten() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.getCollectionName(Game.class)).thenReturn("games");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("games"))).thenReturn(Flux.just(legacyGame()));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("games")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(new LegacyGameMigration(mongoTemplate).run())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(mongoTemplate).find(argThat(query -> query.getQueryObject().containsKey("dealerHand")), eq(Document.class), eq("games"));
+        verify(mongoTemplate).updateFirst(argThat(query -> "game123".equals(query.getQueryObject().get("_id"))
+                && query.getQueryObject().containsKey("dealerHand")), any(Update.class), eq("games"));
+    }
+
+    // A game as stored before cards were kept as bytes
+    private static Document legacyGame() {
+        return new Document("_id", "game123")
+                .append("playersState", List.of(new Document("playerId", "1")
+                        .append("hand", List.of("AS", "6D"))
+                        .append("score", 17)
+                        .append("action", "PLAYING")))
+                .append("gameState", "ONGOING")
+                .append("deck", List.of("9C", "2D", "5H"))
+                .append("dealerHand", List.of("10H"))
+                .append("dealerScore", 10);
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,87 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.repository;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PlayerRepositoryCustomImplTest {
+
+    @Test
+    public void testScoreDeltasAreAppliedInOneStatement() {
+        assertEquals("UPDATE players SET "
+                        + "score = score + CASE id WHEN :id0 THEN :score0 WHEN :id1 THEN :score1 ELSE 0 END, "
+                        + "total_wins = total_wins + CASE id WHEN :id0 THEN :wins0 WHEN :id1 THEN :wins1 ELSE 0 END, "
+                        + "total_losses = total_losses + CASE id WHEN :id0 THEN :losses0 WHEN :id1 THEN :losses1 ELSE 0 END "
+                        + "WHERE id IN (:id0, :id1)",
+                PlayerRepositoryCustomImpl.scoreDeltaSql(2));
+    }
+
+    @Test
+    public void testPlayerIdIsWrittenAsANumber() {
+        Player player = new Player("Player1", 100);
+        player.setId("42");
+        OutboundRow row = new OutboundRow();
+
+        new MappingR2dbcConverter(new R2dbcMappingContext()).write(player, row);
+
+        assertEquals(42L, row.get(SqlIdentifier.unquoted("id")).getValue());
+        assertEquals("42", player.getId());
+    }
+
+    @Test
+    public void testIdsThatAreNotNumbersMatchNoPlayer() {
+        PlayerRepository playerRepository = mock(PlayerRepository.class, CALLS_REAL_METHODS);
+        doReturn(Mono.empty()).when(playerRepository).findById(anyLong());
+        doReturn(Flux.empty()).when(playerRepository).findAllById(anyIterable());
+
+        StepVerifier.create(playerRepository.findPlayer("abc")).verifyComplete();
+        StepVerifier.create(playerRepository.findPlayer("007")).verifyComplete();
+        StepVerifier.create(playerRepository.findPlayers(List.of("7", "abc", "-7"))).verifyComplete();
+
+        verify(playerRepository, never()).findById(anyLong());
+        verify(playerRepository).findAllById(List.of(7L));
+    }
+
+    @Test
+    public void testIdsThatAreNotNumbersCannotBeSet() {
+        Player player = new Player("Player1", 100);
+
+        assertThrows(IllegalArgumentException.class, () -> player.setId("abc"));
+        assertThrows(IllegalArgumentException.class, () -> player.setId("007"));
+    }
+
+    @Test
+    public void testScoreDeltasForIdsThatAreNotNumbersAreLeftOut() {
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        FetchSpec<Map<String, Object>> fetch = mock();
+        when(databaseClient.sql(anyString())).thenReturn(spec);
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.fetch()).thenReturn(fetch);
+        when(fetch.rowsUpdated()).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(new PlayerRepositoryCustomImpl(databaseClient)
+                        .applyScoreDeltas(List.of(new ScoreDelta("abc", 5, 1, 0), new ScoreDelta("7", 5, 1, 0))))
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(databaseClient).sql(PlayerRepositoryCustomImpl.scoreDeltaSql(1));
+        verify(spec).bind("id0", 7L);
+    }
+}
@@ -1,37 +1,72 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.service;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.DeckEmptyException;
+import cat.itacademy.s05.t01.n01.blackjack_game.exception.InvalidMoveException;
+import cat.itacademy.s05.t01.n01.blackjack_game.exception.StateNotAllowedException;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
-import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameHistoryRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
+import cat.itacademy.s05.t01.n01.blackjack_game.utils.CardUtils;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class GameActionInteractorTest {
 
     @Mock
-    private GameRepository gameRepository;
+    private GameStore gameStore;
+
+    @Mock
+    private SettlementWriter settlementWriter;
+
+    private GameEventBroker gameEventBroker;
+
+    private ShoeCounter shoeCounter;
+
+    @Mock
+    private GameHistoryRepository gameHistoryRepository;
+
+    private GameHistory gameHistory;
 
-    @InjectMocks
     private GameActionInteractor gameActionInteractor;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        gameEventBroker = new GameEventBroker(new BlackjackProperties());
+        shoeCounter = new ShoeCounter();
+        gameHistory = new GameHistory(gameHistoryRepository, new BlackjackProperties());
+        when(gameHistoryRepository.append(any())).thenReturn(Mono.empty());
+        when(gameHistoryRepository.saveSnapshot(any())).thenReturn(Mono.empty());
+        gameActionInteractor = new GameActionInteractor(gameStore, settlementWriter, gameEventBroker, gameHistory, Shuffler.seeded(42),
+                shoeCounter, ObservationRegistry.NOOP, new BlackjackProperties());
     }
 
     @Test
@@ -41,33 +76,86 @@ public class GameActionInteractorTest {
         gameActionInteractor.initializeGame(game);
 
         assertNotNull(game.getDeck(), "The deck should not be null");
-        assertEquals(312, game.getDeck().size(), "The deck should contain 312 cards (6 decks * 52 cards each)");
+        assertEquals(312, game.getDeck().remaining(), "The deck should contain 312 cards (6 decks * 52 cards each)");
+        assertEquals(234, game.getDeck().getCutCard(), "The cut card should sit at 75% penetration");
 
-        boolean allCardsValid = game.getDeck().stream()
-                .allMatch(card -> card.matches("^(10|[2-9TJQKA])[CDHS]$"));
+        boolean allCardsValid = game.getDeck().getCards().stream()
+                .allMatch(card -> card.toString().matches("^(10|[2-9TJQKA])[CDHS]$"));
 
         assertTrue(allCardsValid, "All cards in the deck should be valid card representations");
     }
 
+    @Test
+    public void testInitializeGame_ShoeIsRebuiltFromItsSeed() {
+        Game game = new Game();
+        Game sameSeed = new Game();
+
+        gameActionInteractor.initializeGame(game);
+        new GameActionInteractor(gameStore, settlementWriter, gameEventBroker, gameHistory, Shuffler.seeded(42), shoeCounter,
+                ObservationRegistry.NOOP, new BlackjackProperties()).initializeGame(sameSeed);
+
+        assertNotNull(game.getDeck().getSeed());
+        assertEquals(game.getDeck().getSeed(), sameSeed.getDeck().getSeed());
+        assertEquals(game.getDeck().getCards(), sameSeed.getDeck().getCards());
+        assertEquals(CardUtils.createShuffledDeck(6, game.getDeck().getSeed()), game.getDeck().getCards());
+    }
+
     @Test
     public void testDealCard_Success() {
         Game game = new Game();
-        game.setDeck(new ArrayList<>(List.of("9C", "2D", "5H")));
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H")));
 
-        Mono<String> result = gameActionInteractor.dealCard(game);
+        Mono<Card> result = gameActionInteractor.dealCard(game);
 
         StepVerifier.create(result)
-                .expectNext("9C")  // The first card in the deck should be "9C"
+                .expectNext(Card.parse("9C"))  // The first card in the deck should be "9C"
+                .verifyComplete();
+        assertEquals(2, game.getDeck().remaining(), "The deck should have 2 cards left after dealing one card");
+        assertEquals(3, game.getDeck().getCards().size(), "Dealing should only move the cursor");
+    }
+
+    @Test
+    public void testDealCard_ReshufflesAtCutCard() {
+        Game game = new Game();
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H"), 1));
+        game.setDealerHand(CardList.of("10H"));
+
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("2H", "3D"));
+        game.setPlayersState(new ArrayList<>(List.of(playerState)));
+
+        StepVerifier.create(gameActionInteractor.dealCard(game))
+                .expectNext(Card.parse("9C"))
+                .verifyComplete();
+
+        StepVerifier.create(gameActionInteractor.dealCard(game))
+                .expectNextCount(1)
                 .verifyComplete();
-        assertEquals(2, game.getDeck().size(), "The deck should have 2 cards left after dealing one card");
+
+        // A fresh 6-deck shoe without the 3 cards on the table, minus the card just dealt
+        assertEquals(308, game.getDeck().remaining(), "The shoe should be rebuilt once the cut card is reached");
+        assertEquals(2, game.getCardsDealt());
+        assertEquals(1, game.getShoesExhausted());
+        // Only counted once the game is saved
+        assertEquals(0, shoeCounter.getCardsDealt());
+        gameActionInteractor.recordSaved(game);
+        assertEquals(2, shoeCounter.getCardsDealt());
+        assertEquals(1, shoeCounter.getExhausted());
     }
 
     @Test
-    public void testDealCard_EmptyDeck() {
+    public void testDealCard_NoDecksConfigured() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getShoe().setDecks(0);
+        GameActionInteractor interactor = new GameActionInteractor(gameStore, settlementWriter, gameEventBroker, gameHistory, Shuffler.seeded(42),
+                new ShoeCounter(), ObservationRegistry.NOOP, properties);
+
         Game game = new Game();
-        game.setDeck(new ArrayList<>());  // Empty deck
+        game.setDeck(new Shoe());  // Empty deck
+        game.setDealerHand(new CardList());
+        game.setPlayersState(new ArrayList<>());
 
-        Mono<String> result = gameActionInteractor.dealCard(game);
+        Mono<Card> result = interactor.dealCard(game);
 
         StepVerifier.create(result)
                 .expectError(DeckEmptyException.class)
@@ -82,30 +170,36 @@ public class GameActionInteractorTest {
         Game game = new Game();
         game.setId(gameId);
         game.setGameState(GameState.ONGOING);
-        game.setDeck(new ArrayList<>(List.of("9C", "2D", "5H")));
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H")));
 
         PlayerState playerState = new PlayerState(playerId);
         playerState.setPlayerId(playerId);
-        playerState.setHand(new ArrayList<>(List.of("2H", "3D")));
-        playerState.setScore(5);
+        playerState.setHand(CardList.of("2H", "3D"));
         playerState.setAction(PlayerAction.PLAYING);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
 
-        Mono<Game> result = gameActionInteractor.hit(gameId, playerId);
+        Mono<Game> result = gameActionInteractor.hit(game, playerId);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
                     PlayerState updatedPlayerState = updatedGame.getPlayersState().getFirst();
 
-                    return updatedPlayerState.getPlayerHand().contains("9C")
+                    return updatedPlayerState.getPlayerHand().contains(Card.parse("9C"))
                             && updatedPlayerState.getScore() == 14
                             && updatedPlayerState.getAction() == PlayerAction.PLAYING;
                 })
                 .verifyComplete();
+
+        verify(gameStore).saveMove(game, playerState);
+        verify(gameStore, never()).findById(anyString());
+        assertEquals(1, shoeCounter.getCardsDealt());
+        verify(gameHistoryRepository).append(argThat(events -> events.stream()
+                .map(GameHistoryEvent::getType).toList()
+                .equals(List.of(GameHistoryEvent.Type.ACTION_TAKEN, GameHistoryEvent.Type.CARD_DEALT))));
     }
 
     @Test
@@ -117,21 +211,20 @@ public class GameActionInteractorTest {
         game.setId(gameId);
         game.setGameState(GameState.ONGOING);
 
-        game.setDeck(new ArrayList<>(List.of("9C", "2D", "5H")));
-        game.setDealerHand(new ArrayList<>());
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H")));
+        game.setDealerHand(new CardList());
 
         PlayerState playerState = new PlayerState(playerId);
         playerState.setPlayerId(playerId);
-        playerState.setHand(new ArrayList<>(List.of("2H", "3D")));
-        playerState.setScore(14);
+        playerState.setHand(CardList.of("8H", "6D"));
         playerState.setAction(PlayerAction.PLAYING);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
 
-        Mono<Game> result = gameActionInteractor.stand(gameId, playerId);
+        Mono<Game> result = gameActionInteractor.stand(game, playerId);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
@@ -158,17 +251,17 @@ public class GameActionInteractorTest {
 
         PlayerState playerState = new PlayerState(playerId);
         playerState.setPlayerId(playerId);
-        playerState.setHand(new ArrayList<>(List.of("5H", "6D")));
-        playerState.setScore(11);
+        playerState.setHand(CardList.of("5H", "6D"));
         playerState.setAction(PlayerAction.PLAYING);
+        playerState.setBet(100);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
         // Player will draw a 10, resulting in a score of 21
-        game.setDeck(new LinkedList<>(List.of("10S")));
+        game.setDeck(new Shoe(CardList.of("10S")));
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
-        Mono<Game> result = gameActionInteractor.doubleDown(gameId, playerId, amountBet);
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
+        Mono<Game> result = gameActionInteractor.doubleDown(game, playerId, amountBet);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
@@ -176,7 +269,8 @@ public class GameActionInteractorTest {
 
                     return updatedPlayerState.getAction() == PlayerAction.DOUBLED_DOWN
                             && updatedPlayerState.getScore() == 21
-                            && updatedPlayerState.getPlayerHand().contains("10S");
+                            && updatedPlayerState.getPlayerHand().contains(Card.parse("10S"))
+                            && updatedPlayerState.getBet() == 150; // Doubled for less: 100 + 50
                 })
                 .verifyComplete();
     }
@@ -193,17 +287,16 @@ public class GameActionInteractorTest {
 
         PlayerState playerState = new PlayerState(playerId);
         playerState.setPlayerId(playerId);
-        playerState.setHand(new ArrayList<>(List.of("10H", "7D")));
-        playerState.setScore(17);
+        playerState.setHand(CardList.of("10H", "7D"));
         playerState.setAction(PlayerAction.PLAYING);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
         // Player will draw a 6, resulting in a score of 23 (bust)
-        game.setDeck(new LinkedList<>(List.of("6S")));
+        game.setDeck(new Shoe(CardList.of("6S")));
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
-        Mono<Game> result = gameActionInteractor.doubleDown(gameId, playerId, amountBet);
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
+        Mono<Game> result = gameActionInteractor.doubleDown(game, playerId, amountBet);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
@@ -211,7 +304,7 @@ public class GameActionInteractorTest {
 
                     return updatedPlayerState.getAction() == PlayerAction.BUSTED
                             && updatedPlayerState.getScore() == 23 // 17 + 6 = 23
-                            && updatedPlayerState.getPlayerHand().contains("6S");
+                            && updatedPlayerState.getPlayerHand().contains(Card.parse("6S"));
                 })
                 .verifyComplete();
     }
@@ -225,26 +318,24 @@ public class GameActionInteractorTest {
         game.setId(gameId);
         game.setGameState(GameState.ONGOING);
 
-        game.setDeck(new ArrayList<>());
-        game.setDealerHand(new ArrayList<>());
+        game.setDeck(new Shoe());
+        game.setDealerHand(new CardList());
 
         PlayerState playerState1 = new PlayerState(playerId);
         playerState1.setPlayerId(playerId);
-        playerState1.setHand(new ArrayList<>(List.of("5H", "6D")));
-        playerState1.setScore(11);
+        playerState1.setHand(CardList.of("5H", "6D"));
         playerState1.setAction(PlayerAction.PLAYING);
 
         PlayerState playerState2 = new PlayerState("2");
         playerState2.setPlayerId("2");
-        playerState2.setHand(new ArrayList<>(List.of("7H", "8D")));
-        playerState2.setScore(15);
+        playerState2.setHand(CardList.of("7H", "8D"));
         playerState2.setAction(PlayerAction.SURRENDERED);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState1, playerState2)));
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
-        Mono<Game> result = gameActionInteractor.surrender(gameId, playerId);
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
+        Mono<Game> result = gameActionInteractor.surrender(game, playerId);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
@@ -264,26 +355,29 @@ public class GameActionInteractorTest {
         game.setId("game123");
         game.setGameState(GameState.ONGOING);
 
-        game.setDeck(new LinkedList<>(List.of("7C"))); // Dealer will draw a 7
-        game.setDealerHand(new ArrayList<>(List.of("10H"))); // Dealer starts with a 10
+        game.setDeck(new Shoe(CardList.of("7C"))); // Dealer will draw a 7
+        game.setDealerHand(CardList.of("10H")); // Dealer starts with a 10
 
         PlayerState playerState = new PlayerState("1");
         playerState.setPlayerId("1");
-        playerState.setHand(new ArrayList<>(List.of("9H", "10D"))); // Player score is 19
-        playerState.setScore(19);
+        playerState.setHand(CardList.of("9H", "10D")); // Player score is 19
         playerState.setAction(PlayerAction.PLAYING);
+        playerState.setBet(10);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
         Mono<Game> result = gameActionInteractor.finishGame(game);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
                     return updatedGame.getDealerScore() == 17 // Dealer draws 7, total score 17
                             && updatedGame.getGameState() == GameState.FINISHED
-                            && playerState.getAction() == PlayerAction.PLAYING;
+                            && playerState.getAction() == PlayerAction.PLAYING
+                            && playerState.getPayout() == 10;
                 })
                 .verifyComplete();
+        verify(settlementWriter).settle(game);
     }
 
     @Test
@@ -292,25 +386,123 @@ public class GameActionInteractorTest {
         game.setId("game123");
         game.setGameState(GameState.ONGOING);
 
-        game.setDeck(new LinkedList<>(List.of("7C"))); // Dealer will draw a 7
-        game.setDealerHand(new ArrayList<>(List.of("10H"))); // Dealer starts with a 10
+        game.setDeck(new Shoe(CardList.of("7C"))); // Dealer will draw a 7
+        game.setDealerHand(CardList.of("10H")); // Dealer starts with a 10
 
         PlayerState playerState = new PlayerState("1");
         playerState.setPlayerId("1");
-        playerState.setHand(new ArrayList<>(List.of("5H", "6D"))); // Player score is 11
-        playerState.setScore(11);
+        playerState.setHand(CardList.of("5H", "6D")); // Player score is 11
         playerState.setAction(PlayerAction.PLAYING);
+        playerState.setBet(10);
 
         game.setPlayersState(new ArrayList<>(List.of(playerState)));
-        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+        when(gameStore.saveMove(eq(game), any(PlayerState.class))).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
         Mono<Game> result = gameActionInteractor.finishGame(game);
 
         StepVerifier.create(result)
                 .expectNextMatches(updatedGame -> {
                     return updatedGame.getDealerScore() == 17
                             && updatedGame.getGameState() == GameState.FINISHED
-                            && playerState.getAction() == PlayerAction.PLAYING;
+                            && playerState.getAction() == PlayerAction.PLAYING
+                            && playerState.getPayout() == -10;
                 })
                 .verifyComplete();
+        verify(settlementWriter).settle(game);
+    }
+
+    @Test
+    public void testFinishGame_NotSettledWhenSaveFails() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardList.of("7C")));
+        game.setDealerHand(CardList.of("10H"));
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("9H", "10D"));
+        game.setPlayersState(new ArrayList<>(List.of(playerState)));
+
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        StepVerifier.create(gameActionInteractor.finishGame(game))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        verify(settlementWriter, never()).settle(any(Game.class));
+        // The dealer drew a card, but the round it was drawn in was not saved
+        assertEquals(1, game.getCardsDealt());
+        assertEquals(0, shoeCounter.getCardsDealt());
+    }
+
+    @Test
+    public void testApplyMove_ChangesOnlyMemoryAndRejectsWithoutSideEffects() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H")));
+        game.setDealerHand(CardList.of("10H"));
+
+        PlayerState first = new PlayerState("1");
+        first.setHand(CardList.of("2H", "3D"));
+        PlayerState second = new PlayerState("2");
+        second.setHand(CardList.of("4H", "3C"));
+        second.setAction(PlayerAction.STANDING);
+        game.setPlayersState(new ArrayList<>(List.of(first, second)));
+
+        assertSame(first, gameActionInteractor.applyMove(game, "1", PlayerAction.HIT, 0));
+        assertEquals(3, first.getPlayerHand().size());
+
+        assertThrows(StateNotAllowedException.class, () -> gameActionInteractor.applyMove(game, "2", PlayerAction.HIT, 0));
+        assertThrows(InvalidMoveException.class, () -> gameActionInteractor.applyMove(game, "1", PlayerAction.BUSTED, 0));
+        assertEquals(2, second.getPlayerHand().size());
+        assertEquals(2, game.getDeck().remaining());
+
+        verifyNoInteractions(gameStore, settlementWriter);
+    }
+
+    @Test
+    public void testSaveMoves_WritesSeatsOrSettlesFinishedRound() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        List<PlayerState> moved = List.of(new PlayerState("1"), new PlayerState("2"));
+        when(gameStore.saveTable(game)).thenReturn(Mono.just(game));
+        when(gameStore.saveRoundEnd(game)).thenReturn(Mono.just(game));
+
+        gameActionInteractor.saveMoves(game, moved).block();
+        verify(gameStore).saveTable(game);
+        verify(settlementWriter, never()).settle(any(Game.class));
+
+        game.setGameState(GameState.FINISHED);
+        gameActionInteractor.saveMoves(game, moved).block();
+        verify(gameStore).saveRoundEnd(game);
+        verify(settlementWriter).settle(game);
+    }
+
+    @Test
+    public void testEventsArePublishedOnlyOnceSaved() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDeck(new Shoe(CardList.of("9C", "2D", "5H")));
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of("2H", "3D"));
+        game.setPlayersState(new ArrayList<>(List.of(playerState)));
+
+        when(gameStore.saveMove(any(Game.class), any(PlayerState.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(gameEventBroker.subscribe("game123"))
+                .then(() -> gameActionInteractor.hit(game, "1").onErrorResume(e -> Mono.empty()).block())
+                // A retry works on a fresh copy, without the failed attempt's events
+                .then(() -> {
+                    Game retried = game.copy();
+                    gameActionInteractor.hit(retried, "1").block();
+                })
+                // Only the card of the saved hit
+                .expectNextMatches(event -> event.getType() == GameEvent.Type.CARD_DEALT
+                        && event.getCard().equals(Card.parse("2D")))
+                .thenCancel()
+                .verify();
     }
 }
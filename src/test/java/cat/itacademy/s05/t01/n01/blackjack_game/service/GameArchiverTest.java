@@ -0,0 +1,166 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ArchivedGame;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Shoe;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameArchiveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class GameArchiverTest {
+
+    @Mock
+    private GameArchiveRepository gameArchiveRepository;
+
+    @TempDir
+    private Path exportDir;
+
+    private BlackjackProperties properties;
+
+    private GameArchiver gameArchiver;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new BlackjackProperties();
+        properties.getArchive().setBatchSize(2);
+        properties.getArchive().setExportDir(exportDir.toString());
+        gameArchiver = new GameArchiver(gameArchiveRepository, new ObjectMapper().findAndRegisterModules(), properties);
+    }
+
+    @Test
+    public void testFinishedGamesAreArchivedExportedAndRemovedInBatches() throws IOException {
+        when(gameArchiveRepository.findFinished(any(), anyInt()))
+                .thenReturn(Flux.just(finishedGame("1"), finishedGame("2")))
+                .thenReturn(Flux.just(finishedGame("3")));
+        when(gameArchiveRepository.archive(any())).thenReturn(Mono.empty());
+        when(gameArchiveRepository.removeArchived(any()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<String>>getArgument(0).size()));
+
+        StepVerifier.create(gameArchiver.archiveFinished())
+                .expectNext(3L)
+                .verifyComplete();
+
+        verify(gameArchiveRepository, times(2)).findFinished(any(), eq(2));
+        verify(gameArchiveRepository).removeArchived(List.of("1", "2"));
+        verify(gameArchiveRepository).removeArchived(List.of("3"));
+
+        List<Path> files;
+        try (var listing = Files.list(exportDir)) {
+            files = listing.toList();
+        }
+        assertEquals(1, files.size());
+        assertTrue(files.getFirst().getFileName().toString().endsWith(".ndjson.gz"));
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(files.getFirst()))))) {
+            reader.lines().forEach(lines::add);
+        }
+        assertEquals(3, lines.size());
+        assertTrue(lines.getFirst().contains("\"id\":\"1\""));
+    }
+
+    @Test
+    public void testGamesStayWhenTheArchiveCannotBeWritten() {
+        when(gameArchiveRepository.findFinished(any(), anyInt())).thenReturn(Flux.just(finishedGame("1")));
+        when(gameArchiveRepository.archive(any())).thenReturn(Mono.error(new RuntimeException("Mongo is down")));
+
+        StepVerifier.create(gameArchiver.archiveFinished())
+                .expectError(RuntimeException.class)
+                .verify();
+
+        verify(gameArchiveRepository, never()).removeArchived(any());
+    }
+
+    @Test
+    public void testFailedRunLeavesNoExportFile() throws IOException {
+        when(gameArchiveRepository.findFinished(any(), anyInt()))
+                .thenReturn(Flux.just(finishedGame("1"), finishedGame("2")))
+                .thenReturn(Flux.just(finishedGame("3")));
+        when(gameArchiveRepository.archive(any())).thenReturn(Mono.empty());
+        when(gameArchiveRepository.removeArchived(any()))
+                .thenReturn(Mono.just(2L))
+                .thenReturn(Mono.error(new RuntimeException("Mongo is down")));
+
+        StepVerifier.create(gameArchiver.archiveFinished())
+                .expectError(RuntimeException.class)
+                .verify();
+
+        try (var listing = Files.list(exportDir)) {
+            assertEquals(List.of(), listing.toList());
+        }
+    }
+
+    @Test
+    public void testArchivedGameReadsBackWithoutItsShoe() {
+        Game game = finishedGame("1");
+        when(gameArchiveRepository.findById("1")).thenReturn(Mono.just(ArchivedGame.of(game, Instant.now())));
+
+        Game archived = gameArchiver.findGame("1").block();
+
+        assertNull(archived.getDeck());
+        assertEquals(GameState.FINISHED, archived.getGameState());
+        assertEquals(game.getVersion(), archived.getVersion());
+        assertEquals(game.getFinishedAt(), archived.getFinishedAt());
+        assertEquals(game.getDealerHand(), archived.getDealerHand());
+        assertEquals(game.getDealerScore(), archived.getDealerScore());
+        for (int i = 0; i < game.getPlayersState().size(); i++) {
+            PlayerState expected = game.getPlayersState().get(i);
+            PlayerState actual = archived.getPlayersState().get(i);
+            assertEquals(expected.getPlayerId(), actual.getPlayerId());
+            assertEquals(expected.getPlayerHand(), actual.getPlayerHand());
+            assertEquals(expected.getScore(), actual.getScore());
+            assertEquals(expected.getAction(), actual.getAction());
+            assertEquals(expected.getBet(), actual.getBet());
+            assertEquals(expected.getPayout(), actual.getPayout());
+        }
+    }
+
+    private static Game finishedGame(String id) {
+        Game game = new Game();
+        game.setId(id);
+        game.setVersion(4L);
+        game.setGameState(GameState.FINISHED);
+        game.setFinishedAt(Instant.parse("2026-01-01T10:00:00Z"));
+        game.setDeck(new Shoe(CardList.of("2H", "3D", "4S")));
+        PlayerState standing = new PlayerState("10");
+        standing.setHand(CardList.of("KH", "9D"));
+        standing.setAction(PlayerAction.STANDING);
+        standing.setBet(10);
+        standing.setPayout(10);
+        PlayerState busted = new PlayerState("11");
+        busted.setHand(CardList.of("KS", "6C", "QD"));
+        busted.setAction(PlayerAction.BUSTED);
+        busted.setBet(20);
+        busted.setPayout(-20);
+        game.setPlayersState(List.of(standing, busted));
+        game.setDealerHand(CardList.of("TH", "8C"));
+        return game;
+    }
+}
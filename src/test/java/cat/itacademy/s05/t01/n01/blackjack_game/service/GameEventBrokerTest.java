@@ -0,0 +1,86 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GameEventBrokerTest {
+
+    private GameEventBroker broker;
+
+    private Game game;
+
+    @BeforeEach
+    public void setUp() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getEvents().setBufferSize(2);
+        broker = new GameEventBroker(properties);
+        game = new Game();
+        game.setId("game123");
+    }
+
+    @Test
+    public void testSubscribersReceiveSavedEventsUntilTheGameFinishes() {
+        StepVerifier.create(broker.subscribe("game123"))
+                .then(() -> {
+                    game.recordEvent(GameEvent.cardDealt("game123", "1", Card.parse("9C"), 14));
+                    game.recordEvent(GameEvent.actionChanged("game123", "1", PlayerAction.STANDING));
+                    broker.publish(game);
+                })
+                .expectNextMatches(event -> event.getType() == GameEvent.Type.CARD_DEALT && event.getScore() == 14)
+                .expectNextMatches(event -> event.getAction() == PlayerAction.STANDING)
+                .then(() -> {
+                    // The next move works on its own copy of the game
+                    Game next = game.copy();
+                    next.recordEvent(GameEvent.gameFinished("game123", 19));
+                    broker.publish(next);
+                })
+                .expectNextMatches(event -> event.getType() == GameEvent.Type.GAME_FINISHED)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(0, broker.channelCount());
+    }
+
+    @Test
+    public void testSlowSubscriberKeepsOnlyTheNewestEvents() {
+        StepVerifier.create(broker.subscribe("game123"), 0)
+                .then(() -> {
+                    for (int score = 1; score <= 5; score++) {
+                        game.recordEvent(GameEvent.cardDealt("game123", "1", Card.parse("AC"), score));
+                    }
+                    broker.publish(game);
+                })
+                .thenRequest(10)
+                .expectNextMatches(event -> event.getScore() == 4)
+                .expectNextMatches(event -> event.getScore() == 5)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testChannelIsDroppedWhenTheLastSubscriberLeaves() {
+        var first = broker.subscribe("game123").subscribe();
+        var second = broker.subscribe("game123").subscribe();
+        assertEquals(1, broker.channelCount());
+
+        first.dispose();
+        assertEquals(1, broker.channelCount());
+        second.dispose();
+        assertEquals(0, broker.channelCount());
+
+        // Nobody is listening: publishing does not open a channel
+        game.recordEvent(GameEvent.actionChanged("game123", "1", PlayerAction.HIT));
+        broker.publish(game);
+        assertEquals(0, broker.channelCount());
+    }
+}
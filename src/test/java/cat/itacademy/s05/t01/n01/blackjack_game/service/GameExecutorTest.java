@@ -0,0 +1,171 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameExecutorTest {
+
+    private GameExecutor gameExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getExecutor().setLanes(4);
+        gameExecutor = new GameExecutor(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        gameExecutor.shutdown();
+    }
+
+    @Test
+    public void testTasksForOneGameNeverOverlap() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+
+        Flux<Integer> moves = Flux.range(0, 200)
+                .flatMap(i -> gameExecutor.submit("game123", () -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            // Asynchronous completion, like a database round-trip
+                            return Mono.delay(Duration.ofMillis(i % 3))
+                                    .map(tick -> {
+                                        completed.add(i);
+                                        running.decrementAndGet();
+                                        return i;
+                                    });
+                        })
+                        .subscribeOn(Schedulers.parallel()));
+
+        StepVerifier.create(moves)
+                .expectNextCount(200)
+                .verifyComplete();
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(200, completed.size());
+        // The mailbox closes just after the last caller has been answered
+        for (int i = 0; i < 100 && gameExecutor.mailboxCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, gameExecutor.mailboxCount());
+    }
+
+    @Test
+    public void testTasksForOneGameRunInSubmissionOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 50; i++) {
+            int move = i;
+            Mono<Integer> submitted = gameExecutor.submit("game123", () -> Mono.fromCallable(() -> {
+                order.add(move);
+                return move;
+            }));
+            submitted.subscribe();
+        }
+
+        StepVerifier.create(Flux.defer(() -> Flux.fromIterable(order)).delaySubscription(Duration.ofMillis(200)))
+                .expectNextSequence(range(50))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGamesDoNotWaitForEachOther() {
+        Sinks.One<String> released = Sinks.one();
+
+        // The first game's move only completes once the second game's move has run
+        Mono<String> blocked = gameExecutor.submit("game-a", released::asMono);
+        Mono<String> releasing = gameExecutor.submit("game-b", () -> Mono.fromRunnable(() -> released.tryEmitValue("released"))
+                .thenReturn("done"));
+
+        StepVerifier.create(Mono.zip(blocked, releasing.delaySubscription(Duration.ofMillis(10))))
+                .assertNext(result -> {
+                    assertEquals("released", result.getT1());
+                    assertEquals("done", result.getT2());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testErrorsReachTheCallerAndDoNotStallTheGame() {
+        StepVerifier.create(gameExecutor.submit("game123", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(gameExecutor.submit("game123", () -> Mono.just("next")))
+                .expectNext("next")
+                .verifyComplete();
+    }
+
+    @Test
+    public void testCancelledCallersStopTheirWork() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean runningCancelled = new AtomicBoolean();
+        AtomicBoolean queuedStarted = new AtomicBoolean();
+
+        Disposable running = gameExecutor.submit("game123", () -> {
+            started.countDown();
+            return Mono.never().doOnCancel(() -> runningCancelled.set(true));
+        }).subscribe();
+        Disposable queued = gameExecutor.submit("game123", () -> Mono.fromRunnable(() -> queuedStarted.set(true)))
+                .subscribe();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queued.dispose();
+        running.dispose();
+
+        StepVerifier.create(gameExecutor.submit("game123", () -> Mono.just("next")))
+                .expectNext("next")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertTrue(runningCancelled.get());
+        assertFalse(queuedStarted.get());
+    }
+
+    @Test
+    public void testWorkSeesTheCallersContext() {
+        Mono<String> submitted = gameExecutor.submit("game123",
+                () -> Mono.deferContextual(context -> Mono.just(context.<String>get("traceId"))));
+
+        StepVerifier.create(submitted.contextWrite(Context.of("traceId", "trace-1")))
+                .expectNext("trace-1")
+                .verifyComplete();
+    }
+
+    @Test
+    public void testWorkRunsOnItsGameLane() {
+        String lane = gameExecutor.submit("game123", () -> Mono.fromCallable(() -> Thread.currentThread().getName())).block();
+
+        assertTrue(lane.startsWith("game-lane-"));
+        assertEquals(lane, gameExecutor.submit("game123", () -> Mono.fromCallable(() -> Thread.currentThread().getName())).block());
+        assertEquals(4, gameExecutor.laneCount());
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
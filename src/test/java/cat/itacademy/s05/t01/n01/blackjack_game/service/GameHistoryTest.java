@@ -0,0 +1,173 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameHistoryRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class GameHistoryTest {
+
+    @Mock
+    private GameHistoryRepository gameHistoryRepository;
+
+    @Mock
+    private GameStore gameStore;
+
+    @Mock
+    private SettlementWriter settlementWriter;
+
+    private final List<GameHistoryEvent> appended = new ArrayList<>();
+
+    private BlackjackProperties properties;
+
+    private GameHistory gameHistory;
+
+    private GameActionInteractor gameActionInteractor;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new BlackjackProperties();
+        // One deck with an early cut card, so the shoe is reshuffled several times in one round
+        properties.getShoe().setDecks(1);
+        properties.getShoe().setPenetration(0.15);
+        properties.getHistory().setSnapshotInterval(1_000);
+        gameHistory = new GameHistory(gameHistoryRepository, properties);
+        gameActionInteractor = new GameActionInteractor(gameStore, settlementWriter, new GameEventBroker(properties),
+                gameHistory, Shuffler.seeded(7), new ShoeCounter(), ObservationRegistry.NOOP, properties);
+
+        when(gameHistoryRepository.append(any())).thenAnswer(invocation -> {
+            appended.addAll(invocation.<Collection<GameHistoryEvent>>getArgument(0));
+            return Mono.empty();
+        });
+        when(gameHistoryRepository.saveSnapshot(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    public void testRebuildFromSnapshotAndTailMatchesThePlayedGame() {
+        Game game = newGame("1", "2", "3");
+        GameSnapshot snapshot = new GameSnapshot(game.copy());
+
+        Game played = play(game);
+        assertEquals(GameState.FINISHED, played.getGameState());
+        assertTrue(appended.stream().anyMatch(event -> event.getType() == GameHistoryEvent.Type.SHOE_SHUFFLED));
+        verify(gameHistoryRepository).saveSnapshot(argThat(saved -> saved.getGame() == played));
+
+        when(gameHistoryRepository.findLatestSnapshot("game123")).thenReturn(Mono.just(snapshot));
+        when(gameHistoryRepository.findEvents("game123", 0)).thenReturn(Flux.fromIterable(appended));
+
+        Game rebuilt = gameHistory.rebuild("game123").block();
+
+        assertEquals(played.getVersion(), rebuilt.getVersion());
+        assertEquals(played.getGameState(), rebuilt.getGameState());
+        assertEquals(played.getDealerHand(), rebuilt.getDealerHand());
+        assertEquals(played.getDealerScore(), rebuilt.getDealerScore());
+        assertEquals(played.getDeck().getSeed(), rebuilt.getDeck().getSeed());
+        assertEquals(played.getDeck().getCursor(), rebuilt.getDeck().getCursor());
+        for (int i = 0; i < played.getPlayersState().size(); i++) {
+            PlayerState expected = played.getPlayersState().get(i);
+            PlayerState actual = rebuilt.getPlayersState().get(i);
+            assertEquals(expected.getPlayerHand(), actual.getPlayerHand());
+            assertEquals(expected.getAction(), actual.getAction());
+            assertEquals(expected.getBet(), actual.getBet());
+            assertEquals(expected.getPayout(), actual.getPayout());
+        }
+    }
+
+    @Test
+    public void testCardNotInTheShoeIsRejected() {
+        Game game = newGame("1");
+        Card next = game.getDeck().copy().deal();
+        Card other = next.equals(Card.parse("2C")) ? Card.parse("3C") : Card.parse("2C");
+
+        GameHistoryEvent tampered = GameHistoryEvent.dealerDrew(other);
+        tampered.stamp(game.getId(), 1, 0);
+
+        assertThrows(IllegalStateException.class, () -> GameHistory.apply(game, tampered));
+    }
+
+    @Test
+    public void testFailedAppendIsCoveredByASnapshot() {
+        doReturn(Mono.error(new RuntimeException("Mongo is down"))).when(gameHistoryRepository).append(any());
+        Game game = newGame("1");
+        game.recordHistory(GameHistoryEvent.actionTaken("1", PlayerAction.STANDING, 0));
+        game.setVersion(3L);
+
+        assertSame(game, gameHistory.record(game).block());
+        verify(gameHistoryRepository).saveSnapshot(argThat(snapshot -> snapshot.getVersion() == 3));
+    }
+
+    @Test
+    public void testDisabledHistoryWritesNothing() {
+        properties.getHistory().setEnabled(false);
+        Game game = newGame("1");
+
+        gameHistory.started(game).block();
+        gameHistory.record(game).block();
+
+        verifyNoInteractions(gameHistoryRepository);
+    }
+
+    private Game newGame(String... playerIds) {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setDealerHand(new CardList());
+        List<PlayerState> playerStates = new ArrayList<>();
+        for (String playerId : playerIds) {
+            playerStates.add(new PlayerState(playerId));
+        }
+        game.setPlayersState(playerStates);
+        gameActionInteractor.initializeGame(game);
+        gameActionInteractor.dealOpeningHands(game);
+        game.setVersion(0L);
+        return game;
+    }
+
+    // Every move starts from a copy of the last saved game and is saved with the next version,
+    // as GameStore does
+    private Game play(Game game) {
+        Game saved = game;
+        boolean doubled = false;
+        while (saved.getGameState() == GameState.ONGOING) {
+            Game next = saved.copy();
+            PlayerState playing = next.getPlayersState().stream()
+                    .filter(playerState -> playerState.getAction() == PlayerAction.PLAYING)
+                    .findFirst()
+                    .orElseThrow();
+            PlayerAction action;
+            if (!doubled) {
+                action = PlayerAction.DOUBLED_DOWN;
+                doubled = true;
+            } else {
+                action = playing.getScore() < 16 ? PlayerAction.HIT : PlayerAction.STANDING;
+            }
+            gameActionInteractor.applyMove(next, playing.getPlayerId(), action, 10);
+            next.setVersion(saved.getVersion() + 1);
+            saved = gameHistory.record(next).block();
+        }
+        return saved;
+    }
+}
@@ -1,24 +1,55 @@
 package cat.itacademy.s05.t01.n01.blackjack_game.service;
 
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.GameNotFoundException;
 import cat.itacademy.s05.t01.n01.blackjack_game.exception.PlayerNotFoundException;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.BatchedMove;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CreatedGame;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameCursor;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameHistoryEvent;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.GameSnapshot;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.GameState;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveOutcome;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.MoveRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
 import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
-import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.TableRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplay;
+import cat.itacademy.s05.t01.n01.blackjack_game.replay.GameReplayer;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameHistoryRepository;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.GameStore;
 import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.Mockito.*;
 
@@ -28,20 +59,53 @@ public class GameManagerTest {
     private PlayerRepository playerRepository;
 
     @Mock
-    private GameRepository gameRepository;
+    private GameStore gameStore;
 
     @Mock
     private GameActionInteractor gameActionInteractor;
 
-    @InjectMocks
+    private GameConflictCounter conflictCounter;
+
+    private GameExecutor gameExecutor;
+
+    private Leaderboard leaderboard;
+
+    @Mock
+    private GameHistoryRepository gameHistoryRepository;
+
+    private GameHistory gameHistory;
+
+    private GameReplayer gameReplayer;
+
+    @Mock
+    private GameArchiver gameArchiver;
+
     private GameManager gameManager;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        conflictCounter = new GameConflictCounter();
+        gameExecutor = new GameExecutor(new BlackjackProperties());
+        leaderboard = new Leaderboard(playerRepository);
+        gameHistory = new GameHistory(gameHistoryRepository, new BlackjackProperties());
+        gameReplayer = new GameReplayer(new BlackjackProperties());
+        when(gameArchiver.findGame(any())).thenReturn(Mono.empty());
+        when(gameHistoryRepository.append(any())).thenReturn(Mono.empty());
+        when(gameHistoryRepository.saveSnapshot(any())).thenReturn(Mono.empty());
+        when(gameHistoryRepository.saveSnapshots(any())).thenReturn(Mono.empty());
+        gameManager = new GameManager(gameStore, playerRepository, gameActionInteractor,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, ObservationRegistry.NOOP,
+                new BlackjackProperties());
     }
 
 
+    @AfterEach
+    public void tearDown() {
+        gameExecutor.shutdown();
+        gameReplayer.shutdown();
+    }
+
     @Test
     public void testCreateSinglePlayerGame() {
         String playerName = "Player1";
@@ -50,7 +114,7 @@ public class GameManagerTest {
 
         when(playerRepository.save(any(Player.class))).thenReturn(Mono.just(player));
 
-        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> {
+        when(gameStore.save(any(Game.class))).thenAnswer(invocation -> {
             Game game = invocation.getArgument(0);
             game.setId(UUID.randomUUID().toString());
             return Mono.just(game);
@@ -62,7 +126,7 @@ public class GameManagerTest {
                 .expectNextMatches(game -> {
                     return game.getGameState() == GameState.ONGOING
                             && game.getPlayersState().size() == 1
-                            && game.getPlayersState().get(0).getPlayerId() == player.getId()
+                            && game.getPlayersState().get(0).getPlayerId().equals(player.getId())
                             && game.getPlayersState().get(0).getPlayerHand().isEmpty()
                             && game.getPlayersState().get(0).getScore() == 0
                             && game.getDealerHand().isEmpty()
@@ -71,8 +135,9 @@ public class GameManagerTest {
                 .verifyComplete();
 
         verify(gameActionInteractor).initializeGame(any(Game.class));
+        verify(gameActionInteractor).dealOpeningHands(any(Game.class));
         verify(playerRepository).save(any(Player.class));
-        verify(gameRepository).save(any(Game.class));
+        verify(gameStore).save(any(Game.class));
     }
 
     @Test
@@ -83,27 +148,23 @@ public class GameManagerTest {
         Player player2 = new Player("Player2", 0);
         player2.setId("2");
 
-        when(playerRepository.findAllById(playerIds)).thenReturn(Flux.just(player1, player2));
+        when(playerRepository.findPlayers(playerIds)).thenReturn(Flux.just(player1, player2));
 
         doNothing().when(gameActionInteractor).initializeGame(any(Game.class));
 
-        when(gameActionInteractor.dealCard(any(Game.class)))
-                .thenAnswer(invocation -> {
-                    Game game = invocation.getArgument(0);
-                    List<PlayerState> playerStates = game.getPlayersState();
-
-                    if (playerStates.get(0).getPlayerHand().isEmpty()) {
-                        return Mono.just("5H"); // First card to player 1
-                    } else if (playerStates.get(0).getPlayerHand().size() == 1) {
-                        return Mono.just("6D"); // Second card to player 1
-                    } else if (playerStates.get(1).getPlayerHand().isEmpty()) {
-                        return Mono.just("7S"); // First card to player 2
-                    } else {
-                        return Mono.just("8C"); // Second card to player 2
-                    }
-                });
-
-        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> {
+        doAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            List<PlayerState> playerStates = game.getPlayersState();
+            playerStates.get(0).addCard(Card.parse("5H"));
+            playerStates.get(0).addCard(Card.parse("6D"));
+            playerStates.get(1).addCard(Card.parse("7S"));
+            playerStates.get(1).addCard(Card.parse("8C"));
+            game.addDealerCard(Card.parse("9H"));
+            game.addDealerCard(Card.parse("2C"));
+            return null;
+        }).when(gameActionInteractor).dealOpeningHands(any(Game.class));
+
+        when(gameStore.save(any(Game.class))).thenAnswer(invocation -> {
             Game game = invocation.getArgument(0);
             game.setId(UUID.randomUUID().toString()); // Simulate game ID assignment
             return Mono.just(game);
@@ -128,10 +189,61 @@ public class GameManagerTest {
                 })
                 .verifyComplete();
 
-        verify(playerRepository).findAllById(playerIds);
+        verify(playerRepository).findPlayers(playerIds);
         verify(gameActionInteractor).initializeGame(any(Game.class));
-        verify(gameActionInteractor, times(4)).dealCard(any(Game.class)); // 2 players, 2 cards each
-        verify(gameRepository).save(any(Game.class));
+        verify(gameActionInteractor).dealOpeningHands(any(Game.class));
+        verify(gameActionInteractor, never()).dealCard(any(Game.class));
+        verify(gameStore).save(any(Game.class));
+    }
+
+    @Test
+    public void testGamesCreatedOneByOneReplayAsRecorded() {
+        GameActionInteractor dealer = new GameActionInteractor(null, null, null, null, Shuffler.seeded(11),
+                new ShoeCounter(), ObservationRegistry.NOOP, new BlackjackProperties());
+        GameManager manager = new GameManager(gameStore, playerRepository, dealer,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, ObservationRegistry.NOOP,
+                new BlackjackProperties());
+        Player player1 = new Player("Player1", 0);
+        player1.setId("1");
+        Player player2 = new Player("Player2", 0);
+        player2.setId("2");
+        when(playerRepository.save(any(Player.class))).thenReturn(Mono.just(player1));
+        when(playerRepository.findPlayers(List.of("1", "2"))).thenReturn(Flux.just(player1, player2));
+        when(gameStore.save(any(Game.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        assertReplaysAsRecorded(manager, manager.createSinglePlayerGame("Player1"));
+        assertReplaysAsRecorded(manager, manager.startNewGame(List.of("1", "2")));
+    }
+
+    // Keeps the history the game was created with and replays it as if the game had finished there
+    private void assertReplaysAsRecorded(GameManager manager, Mono<Game> created) {
+        List<GameSnapshot> snapshots = new ArrayList<>();
+        List<GameHistoryEvent> events = new ArrayList<>();
+        doAnswer(invocation -> {
+            snapshots.add(invocation.getArgument(0));
+            return Mono.empty();
+        }).when(gameHistoryRepository).saveSnapshot(any());
+        doAnswer(invocation -> {
+            events.addAll(invocation.getArgument(0));
+            return Mono.empty();
+        }).when(gameHistoryRepository).append(any());
+
+        Game game = created.block();
+        Game finished = game.copy();
+        finished.setGameState(GameState.FINISHED);
+        when(gameStore.findById(game.getId())).thenReturn(Mono.just(finished));
+        when(gameHistoryRepository.findFirstSnapshot(game.getId())).thenReturn(Mono.just(snapshots.getFirst()));
+        when(gameHistoryRepository.findEvents(game.getId())).thenReturn(Flux.fromIterable(events));
+
+        GameReplay replay = manager.getGameReplay(game.getId()).block();
+
+        assertEquals(2 * game.getPlayersState().size() + 2, events.size());
+        assertTrue(replay.isMatchingRecord(), replay.getDivergence());
+        assertEquals(game.getDealerHand(), replay.getFinalState().getDealerHand());
+        for (int seat = 0; seat < game.getPlayersState().size(); seat++) {
+            assertEquals(game.getPlayersState().get(seat).getPlayerHand(),
+                    replay.getFinalState().getPlayersState().get(seat).getPlayerHand());
+        }
     }
 
     @Test
@@ -140,7 +252,7 @@ public class GameManagerTest {
         Player player1 = new Player("Player1", 0);
         player1.setId("1");
 
-        when(playerRepository.findAllById(playerIds)).thenReturn(Flux.just(player1)); // Only one player found
+        when(playerRepository.findPlayers(playerIds)).thenReturn(Flux.just(player1)); // Only one player found
 
         Mono<Game> result = gameManager.startNewGame(playerIds);
 
@@ -148,8 +260,8 @@ public class GameManagerTest {
                 .expectError(PlayerNotFoundException.class)
                 .verify();
 
-        verify(playerRepository).findAllById(playerIds);
-        verify(gameRepository, never()).save(any(Game.class));
+        verify(playerRepository).findPlayers(playerIds);
+        verify(gameStore, never()).save(any(Game.class));
     }
 
     @Test
@@ -158,23 +270,56 @@ public class GameManagerTest {
         Player player2 = new Player("Player2", 150);
         Player player3 = new Player("Player3", 120);
 
-        when(playerRepository.findAll()).thenReturn(Flux.just(player1, player2, player3));
+        when(playerRepository.findRankingPage(20, 0)).thenReturn(Flux.just(player2, player3, player1));
 
-        StepVerifier.create(gameManager.getPlayerRankings())
+        // The leaderboard is not loaded yet, so the page comes from the database
+        StepVerifier.create(gameManager.getPlayerRankings(0, 20))
                 .expectNext(player2) // Player2 has the highest score
                 .expectNext(player3) // Player3 has the second highest score
                 .expectNext(player1) // Player1 has the lowest score
                 .verifyComplete();
     }
 
+    @Test
+    public void testGetPlayerRankings_FromLeaderboard() {
+        Player player1 = new Player("Player1", 100);
+        player1.setId("1");
+        Player player2 = new Player("Player2", 150);
+        player2.setId("2");
+        Player player3 = new Player("Player3", 120);
+        player3.setId("3");
+        leaderboard.loadAll(List.of(player1, player2, player3));
+
+        StepVerifier.create(gameManager.getPlayerRankings(1, 2).map(Player::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(gameManager.getPlayerRank("3"))
+                .expectNextMatches(rank -> rank.getRank() == 2 && rank.getScore() == 120)
+                .verifyComplete();
+        verify(playerRepository, never()).findRankingPage(anyInt(), anyLong());
+    }
+
+    @Test
+    public void testGetPlayerRank_FromDatabase() {
+        Player player = new Player("Player1", 100);
+        player.setId("1");
+        when(playerRepository.findPlayer("1")).thenReturn(Mono.just(player));
+        when(playerRepository.countByScoreGreaterThan(100)).thenReturn(Mono.just(4L));
+
+        StepVerifier.create(gameManager.getPlayerRank("1"))
+                .expectNextMatches(rank -> rank.getRank() == 5 && rank.getPlayerId().equals("1"))
+                .verifyComplete();
+    }
+
     @Test
     public void testChangePlayerName_Success() {
         String playerId = "1";
         String newName = "Player_1 Updated";
 
         Player player = new Player(playerId, 100);
+        player.setId(playerId);
 
-        when(playerRepository.findById(playerId)).thenReturn(Mono.just(player));
+        when(playerRepository.findPlayer(playerId)).thenReturn(Mono.just(player));
         when(playerRepository.save(player)).thenReturn(Mono.just(player));
 
         Mono<Player> result = gameManager.changePlayerName(playerId, newName);
@@ -189,7 +334,7 @@ public class GameManagerTest {
         String playerId = "1";
         String newName = "Player_1 Updated";
 
-        when(playerRepository.findById(playerId)).thenReturn(Mono.empty());
+        when(playerRepository.findPlayer(playerId)).thenReturn(Mono.empty());
 
         Mono<Player> result = gameManager.changePlayerName(playerId, newName);
 
@@ -205,7 +350,7 @@ public class GameManagerTest {
         Game game = new Game();
         game.setId(gameId);
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
 
         Mono<Game> result = gameManager.getGameDetails(gameId);
 
@@ -218,7 +363,7 @@ public class GameManagerTest {
     public void testGetGameDetails_GameNotFound() {
         String gameId = "game123";
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.empty());
+        when(gameStore.findById(gameId)).thenReturn(Mono.empty());
 
         Mono<Game> result = gameManager.getGameDetails(gameId);
 
@@ -233,29 +378,360 @@ public class GameManagerTest {
         Game game = new Game();
         game.setId(gameId);
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.just(game));
-        when(gameRepository.delete(game)).thenReturn(Mono.empty());
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameStore.delete(game)).thenReturn(Mono.empty());
 
-        Mono<Void> result = gameRepository.findById(gameId)
-                .flatMap(foundGame -> gameRepository.delete(foundGame));
+        Mono<Void> result = gameStore.findById(gameId)
+                .flatMap(foundGame -> gameStore.delete(foundGame));
 
         StepVerifier.create(result)
                 .expectComplete()
                 .verify();
 
-        verify(gameRepository).delete(game);
+        verify(gameStore).delete(game);
     }
 
     @Test
     public void testDeleteGame_GameNotFound() {
         String gameId = "game123";
 
-        when(gameRepository.findById(gameId)).thenReturn(Mono.empty());
+        when(gameStore.findById(gameId)).thenReturn(Mono.empty());
 
         StepVerifier.create(gameManager.deleteGame(gameId))
                 .expectError(GameNotFoundException.class)
                 .verify();
 
-        verify(gameRepository, never()).delete(any(Game.class));
+        verify(gameStore, never()).delete(any(Game.class));
+    }
+
+    @Test
+    public void testMakeMove_ReadsGameOnce() {
+        String gameId = "game123";
+        Game game = new Game();
+        game.setId(gameId);
+        game.setGameState(GameState.ONGOING);
+        game.setPlayersState(new ArrayList<>(List.of(new PlayerState("1"))));
+
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameActionInteractor.doubleDown(game, "1", 50)).thenReturn(Mono.just(game));
+
+        StepVerifier.create(gameManager.makeMove(gameId, "1", PlayerAction.DOUBLED_DOWN, 50))
+                .expectNext(game)
+                .verifyComplete();
+
+        verify(gameStore, times(1)).findById(gameId);
+        verify(gameActionInteractor).doubleDown(game, "1", 50);
+    }
+
+    @Test
+    public void testMakeMove_RetriesAfterVersionConflict() {
+        String gameId = "game123";
+        Game game = new Game();
+        game.setId(gameId);
+        game.setGameState(GameState.ONGOING);
+        game.setPlayersState(new ArrayList<>(List.of(new PlayerState("1"))));
+
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameActionInteractor.hit(game, "1"))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenReturn(Mono.just(game));
+
+        StepVerifier.create(gameManager.makeMove(gameId, "1", PlayerAction.HIT, 0))
+                .expectNext(game)
+                .verifyComplete();
+
+        verify(gameStore, times(2)).findById(gameId);
+        assertEquals(1, conflictCounter.getConflicts());
+        assertEquals(1, conflictCounter.getRetries());
+        assertEquals(0, conflictCounter.getExhausted());
+    }
+
+    @Test
+    public void testMakeMove_IsTimedPerActionAndCountsConflicts() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        conflictCounter.bindTo(meterRegistry);
+        GameManager observedManager = new GameManager(gameStore, playerRepository, gameActionInteractor,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, observationRegistry,
+                new BlackjackProperties());
+
+        String gameId = "game123";
+        Game game = new Game();
+        game.setId(gameId);
+        game.setGameState(GameState.ONGOING);
+        game.setPlayersState(new ArrayList<>(List.of(new PlayerState("1"))));
+
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameActionInteractor.hit(game, "1"))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenReturn(Mono.just(game));
+
+        StepVerifier.create(observedManager.makeMove(gameId, "1", PlayerAction.HIT, 0))
+                .expectNext(game)
+                .verifyComplete();
+
+        // One timing for the move, its retry included
+        assertEquals(1, meterRegistry.get("blackjack.move").tag("action", "HIT").timer().count());
+        assertEquals(1.0, meterRegistry.get("blackjack.game.conflicts").functionCounter().count());
+    }
+
+    @Test
+    public void testMakeMove_GivesUpAfterMaxRetries() {
+        String gameId = "game123";
+        Game game = new Game();
+        game.setId(gameId);
+        game.setGameState(GameState.ONGOING);
+        game.setPlayersState(new ArrayList<>(List.of(new PlayerState("1"))));
+
+        when(gameStore.findById(gameId)).thenReturn(Mono.just(game));
+        when(gameActionInteractor.stand(game, "1"))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        StepVerifier.create(gameManager.makeMove(gameId, "1", PlayerAction.STANDING, 0))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        assertEquals(4, conflictCounter.getConflicts());
+        assertEquals(3, conflictCounter.getRetries());
+        assertEquals(1, conflictCounter.getExhausted());
+    }
+
+    @Test
+    public void testCreateGames_InsertsInBatchesAndStreamsIdsInOrder() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getBulk().setBatchSize(2);
+        GameManager bulkManager = new GameManager(gameStore, playerRepository, gameActionInteractor,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, ObservationRegistry.NOOP,
+                properties);
+
+        Player existing = new Player("Player1", 0);
+        existing.setId("1");
+        when(playerRepository.findPlayers(anyCollection())).thenReturn(Flux.just(existing));
+        when(playerRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Player> players = invocation.getArgument(0);
+            for (int i = 0; i < players.size(); i++) {
+                players.get(i).setId(String.valueOf(10 + i));
+            }
+            return Flux.fromIterable(players);
+        });
+        when(gameStore.insertAll(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Game>>getArgument(0)));
+
+        List<TableRequest> tables = List.of(
+                new TableRequest(List.of("1"), List.of()),
+                new TableRequest(List.of(), List.of("Ann")),
+                new TableRequest(List.of("1"), List.of("Bob")));
+
+        List<CreatedGame> created = bulkManager.createGames(tables).collectList().block();
+
+        assertEquals(List.of(0, 1, 2), created.stream().map(CreatedGame::getTable).toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Game>> batches = ArgumentCaptor.forClass(List.class);
+        verify(gameStore, times(2)).insertAll(batches.capture());
+        List<Game> games = batches.getAllValues().stream().flatMap(Collection::stream).toList();
+        assertEquals(created.stream().map(CreatedGame::getGameId).toList(), games.stream().map(Game::getId).toList());
+        assertEquals(List.of("1"), playerIds(games.get(0)));
+        assertEquals(List.of("10"), playerIds(games.get(1)));
+        assertEquals(List.of("1", "11"), playerIds(games.get(2)));
+
+        verify(playerRepository, times(1)).findPlayers(anyCollection());
+        verify(playerRepository, times(1)).insertAll(anyList());
+        verify(gameActionInteractor, times(3)).dealOpeningHands(any(Game.class));
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    public void testCreateGames_FailedInsertRemovesTheNewPlayersAndGames() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getBulk().setBatchSize(1);
+        GameManager bulkManager = new GameManager(gameStore, playerRepository, gameActionInteractor,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, ObservationRegistry.NOOP,
+                properties);
+
+        AtomicInteger nextId = new AtomicInteger(10);
+        when(playerRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Player> players = invocation.getArgument(0);
+            players.forEach(player -> player.setId(String.valueOf(nextId.getAndIncrement())));
+            return Flux.fromIterable(players);
+        });
+        when(playerRepository.deleteAllById(anyIterable())).thenReturn(Mono.empty());
+        when(gameStore.insertAll(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Game>>getArgument(0)))
+                .thenReturn(Flux.error(new RuntimeException("Mongo is down")));
+        when(gameStore.deleteAll(anyList())).thenReturn(Mono.empty());
+        when(gameHistoryRepository.deleteGames(anyCollection())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bulkManager.createGames(List.of(
+                        new TableRequest(List.of(), List.of("Ann")),
+                        new TableRequest(List.of(), List.of("Bob")))))
+                .expectNextCount(1)
+                .expectErrorMessage("Mongo is down")
+                .verify();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Game>> batches = ArgumentCaptor.forClass(List.class);
+        verify(gameStore, times(2)).insertAll(batches.capture());
+        List<String> gameIds = batches.getAllValues().stream().flatMap(Collection::stream).map(Game::getId).toList();
+        verify(gameStore).deleteAll(gameIds);
+        verify(gameHistoryRepository).deleteGames(gameIds);
+        verify(playerRepository).deleteAllById(List.of(10L, 11L));
+        assertEquals(0, leaderboard.size());
+    }
+
+    @Test
+    public void testCreateGames_BatchWrittenInPartIsRemoved() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getBulk().setBatchSize(2);
+        GameManager bulkManager = new GameManager(gameStore, playerRepository, gameActionInteractor,
+                gameExecutor, leaderboard, new GameEventBroker(new BlackjackProperties()), gameHistory, gameReplayer, gameArchiver, conflictCounter, ObservationRegistry.NOOP,
+                properties);
+
+        Player existing = new Player("Player1", 0);
+        existing.setId("1");
+        when(playerRepository.findPlayers(anyCollection())).thenReturn(Flux.just(existing));
+        // The ordered insert writes the first game of the batch, then fails without emitting it
+        Set<String> stored = new HashSet<>();
+        when(gameStore.insertAll(anyList())).thenAnswer(invocation -> {
+            stored.add(invocation.<List<Game>>getArgument(0).getFirst().getId());
+            return Flux.error(new RuntimeException("Write concern failed"));
+        });
+        when(gameStore.deleteAll(anyList())).thenAnswer(invocation -> {
+            invocation.<List<String>>getArgument(0).forEach(stored::remove);
+            return Mono.empty();
+        });
+        when(gameHistoryRepository.deleteGames(anyCollection())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bulkManager.createGames(List.of(
+                        new TableRequest(List.of("1"), List.of()),
+                        new TableRequest(List.of("1"), List.of()))))
+                .expectErrorMessage("Write concern failed")
+                .verify();
+
+        assertTrue(stored.isEmpty());
+        verify(gameStore).deleteAll(argThat(ids -> ids.size() == 2));
+        verify(gameHistoryRepository).deleteGames(argThat(ids -> ids.size() == 2));
+        verify(gameActionInteractor, never()).recordSaved(any(Game.class));
+    }
+
+    @Test
+    public void testCreateGames_UnknownPlayerCreatesNothing() {
+        when(playerRepository.findPlayers(anyCollection())).thenReturn(Flux.empty());
+
+        StepVerifier.create(gameManager.createGames(List.of(new TableRequest(List.of("42"), List.of("Ann")))))
+                .expectError(PlayerNotFoundException.class)
+                .verify();
+
+        verify(playerRepository, never()).insertAll(anyList());
+        verify(gameStore, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testCreateGames_RejectsEmptyTable() {
+        StepVerifier.create(gameManager.createGames(List.of(new TableRequest())))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    public void testCreateGames_RejectsIdsThatCannotBelongToAPlayer() {
+        StepVerifier.create(gameManager.createGames(List.of(new TableRequest(List.of("1", "007"), List.of()))))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(playerRepository);
+    }
+
+    @Test
+    public void testGetGames_PagesFromTheCursor() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setGameState(GameState.ONGOING);
+        game.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_000L));
+        game.setPlayersState(List.of(new PlayerState("1"), new PlayerState("2")));
+        when(gameStore.findPage(eq(GameState.ONGOING), isNull(), any(GameCursor.class), eq(2))).thenReturn(Flux.just(game));
+
+        StepVerifier.create(gameManager.getGames(GameState.ONGOING, "1700000000500:game456", 2))
+                .assertNext(summary -> {
+                    assertEquals("game123", summary.getId());
+                    assertEquals(List.of("1", "2"), summary.getPlayerIds());
+                    assertEquals("1700000000000:game123", summary.getCursor());
+                })
+                .verifyComplete();
+
+        verify(gameStore).findPage(eq(GameState.ONGOING), isNull(), argThat(cursor ->
+                cursor.getCreatedAt().toEpochMilli() == 1_700_000_000_500L && cursor.getId().equals("game456")), eq(2));
+    }
+
+    @Test
+    public void testGetGames_RejectsBadLimitAndCursor() {
+        StepVerifier.create(gameManager.getGames(null, null, 0))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(gameManager.getGames(null, null, 1_001))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(gameManager.getGames(null, "game456", null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(gameStore, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testGetPlayerGames_UnknownPlayer() {
+        when(playerRepository.findPlayer("42")).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameManager.getPlayerGames("42", null, null, null))
+                .expectError(PlayerNotFoundException.class)
+                .verify();
+
+        verify(gameStore, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testMakeMoves_LoadsAndSavesEachGameOnce() {
+        Game game = new Game();
+        game.setId("game123");
+        game.setVersion(3L);
+        game.setGameState(GameState.ONGOING);
+        PlayerState first = new PlayerState("1");
+        PlayerState second = new PlayerState("2");
+        game.setPlayersState(new ArrayList<>(List.of(first, second)));
+
+        when(gameStore.findById("game123")).thenReturn(Mono.just(game));
+        when(gameStore.findById("missing")).thenReturn(Mono.empty());
+        when(gameActionInteractor.applyMove(game, "1", PlayerAction.HIT, 0)).thenReturn(first);
+        when(gameActionInteractor.applyMove(game, "1", PlayerAction.STANDING, 0)).thenReturn(first);
+        when(gameActionInteractor.applyMove(game, "2", PlayerAction.STANDING, 0))
+                .thenThrow(new PlayerNotFoundException());
+        when(gameActionInteractor.saveMoves(eq(game), anyList())).thenAnswer(invocation -> {
+            game.setVersion(4L);
+            return Mono.just(game);
+        });
+
+        List<BatchedMove> moves = List.of(
+                new BatchedMove("game123", "1", new MoveRequest(PlayerAction.HIT, 0)),
+                new BatchedMove("missing", "1", new MoveRequest(PlayerAction.HIT, 0)),
+                new BatchedMove("game123", "2", new MoveRequest(PlayerAction.STANDING, 0)),
+                new BatchedMove("game123", "1", new MoveRequest(PlayerAction.STANDING, 0)));
+
+        List<MoveOutcome> outcomes = gameManager.makeMoves(moves).collectList().block();
+        outcomes.sort(Comparator.comparingInt(MoveOutcome::getIndex));
+
+        assertEquals(4, outcomes.size());
+        assertTrue(outcomes.get(0).isApplied());
+        assertEquals(4L, outcomes.get(0).getVersion());
+        assertFalse(outcomes.get(1).isApplied());
+        assertEquals("Game not found with id: missing", outcomes.get(1).getError());
+        assertFalse(outcomes.get(2).isApplied());
+        assertTrue(outcomes.get(3).isApplied());
+
+        verify(gameStore, times(1)).findById("game123");
+        // Both applied moves were by the same player, who is saved once
+        verify(gameActionInteractor, times(1)).saveMoves(game, List.of(first));
+    }
+
+    private static List<String> playerIds(Game game) {
+        return game.getPlayersState().stream().map(PlayerState::getPlayerId).toList();
     }
 }
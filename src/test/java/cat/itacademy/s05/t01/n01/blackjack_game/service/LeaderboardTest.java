@@ -0,0 +1,173 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerRank;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LeaderboardTest {
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        leaderboard = new Leaderboard(playerRepository);
+    }
+
+    @Test
+    public void testPagesFollowScoreThenId() {
+        leaderboard.loadAll(List.of(player("1", 10), player("2", 30), player("3", 20), player("4", 30)));
+
+        assertEquals(List.of("2", "4"), ids(leaderboard.page(0, 2)));
+        assertEquals(List.of("3", "1"), ids(leaderboard.page(2, 2)));
+        assertEquals(List.of("1"), ids(leaderboard.page(3, 10)));
+        assertTrue(leaderboard.page(4, 10).isEmpty());
+        assertTrue(leaderboard.isLoaded());
+    }
+
+    @Test
+    public void testTiedPlayersShareARank() {
+        leaderboard.loadAll(List.of(player("1", 10), player("2", 30), player("3", 20), player("4", 30)));
+
+        assertEquals(1, leaderboard.rank("2").orElseThrow().getRank());
+        assertEquals(1, leaderboard.rank("4").orElseThrow().getRank());
+        assertEquals(3, leaderboard.rank("3").orElseThrow().getRank());
+        assertEquals(4, leaderboard.rank("1").orElseThrow().getRank());
+        assertTrue(leaderboard.rank("missing").isEmpty());
+    }
+
+    @Test
+    public void testUpdatesMovePlayersAndKeepNames() {
+        leaderboard.loadAll(List.of(player("1", 10), player("2", 30)));
+
+        Player renamed = player("1", 40);
+        renamed.setName("Renamed");
+        leaderboard.update(renamed);
+        leaderboard.update(player("5", 35));
+
+        assertEquals(List.of("1", "5", "2"), ids(leaderboard.page(0, 10)));
+        PlayerRank rank = leaderboard.rank("1").orElseThrow();
+        assertEquals("Renamed", rank.getName());
+        assertEquals(40, rank.getScore());
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    public void testPagesCarryWinsAndLosses() {
+        Player player = player("1", 10);
+        player.setTotalWins(3);
+        player.setTotalLosses(2);
+        leaderboard.loadAll(List.of(player));
+
+        leaderboard.addScore(new ScoreDelta("1", 5, 1, 0));
+
+        Player ranked = leaderboard.page(0, 1).get(0);
+        assertEquals(15, ranked.getScore());
+        assertEquals(4, ranked.getTotalWins());
+        assertEquals(2, ranked.getTotalLosses());
+    }
+
+    @Test
+    public void testPlayersUpdatedDuringLoadKeepTheirNewerScore() {
+        leaderboard.update(player("1", 50));
+
+        leaderboard.loadAll(List.of(player("1", 10), player("2", 20)));
+
+        assertEquals(50, leaderboard.rank("1").orElseThrow().getScore());
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    public void testScoresAddedDuringLoadAreReadAgain() {
+        when(playerRepository.findPlayers(Set.of("1", "3"))).thenReturn(Flux.just(player("1", 15)));
+        leaderboard.addScore(new ScoreDelta("1", 5, 1, 0));
+        leaderboard.remove("3");
+
+        leaderboard.loadAll(List.of(player("1", 10), player("2", 20), player("3", 30)));
+
+        assertEquals(15, leaderboard.rank("1").orElseThrow().getScore());
+        assertTrue(leaderboard.rank("3").isEmpty());
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    public void testScoresAddedDuringARefreshAreReadAgain() {
+        Sinks.One<List<Player>> firstRead = Sinks.one();
+        when(playerRepository.findPlayers(Set.of("1")))
+                .thenReturn(firstRead.asMono().flatMapMany(Flux::fromIterable))
+                .thenReturn(Flux.just(player("1", 17)));
+        leaderboard.addScore(new ScoreDelta("1", 5, 1, 0));
+        leaderboard.loadAll(List.of(player("1", 10)));
+
+        leaderboard.addScore(new ScoreDelta("1", 2, 1, 0));
+        firstRead.tryEmitValue(List.of(player("1", 15)));
+
+        assertEquals(17, leaderboard.rank("1").orElseThrow().getScore());
+        verify(playerRepository, times(2)).findPlayers(Set.of("1"));
+    }
+
+    @Test
+    public void testMatchesFullSortAfterRandomUpdates() {
+        Random random = new Random(42);
+        Map<String, Integer> scores = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String id = String.valueOf(random.nextInt(500) + 1);
+            if (random.nextInt(10) == 0) {
+                scores.remove(id);
+                leaderboard.remove(id);
+            } else {
+                int score = random.nextInt(200);
+                scores.put(id, score);
+                leaderboard.update(player(id, score));
+            }
+        }
+
+        List<String> expected = scores.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                        .thenComparingLong(entry -> Long.parseLong(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertEquals(expected, ids(leaderboard.page(0, expected.size())));
+        assertEquals(expected.subList(100, 150), ids(leaderboard.page(100, 50)));
+
+        for (String id : expected) {
+            int score = scores.get(id);
+            long higher = scores.values().stream().filter(other -> other > score).count();
+            assertEquals(higher + 1, leaderboard.rank(id).orElseThrow().getRank());
+        }
+    }
+
+    private static Player player(String id, int score) {
+        Player player = new Player("Player " + id, score);
+        player.setId(id);
+        return player;
+    }
+
+    private static List<String> ids(List<Player> players) {
+        List<String> ids = new ArrayList<>();
+        players.forEach(player -> ids.add(player.getId()));
+        return ids;
+    }
+}
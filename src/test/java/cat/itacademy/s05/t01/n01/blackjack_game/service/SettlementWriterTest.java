@@ -0,0 +1,115 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.service;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Player;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.ScoreDelta;
+import cat.itacademy.s05.t01.n01.blackjack_game.repository.PlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class SettlementWriterTest {
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    private Leaderboard leaderboard;
+    private BlackjackProperties properties;
+    private SettlementWriter settlementWriter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        leaderboard = new Leaderboard(playerRepository);
+        properties = new BlackjackProperties();
+        settlementWriter = new SettlementWriter(playerRepository, leaderboard, properties);
+        when(playerRepository.applyScoreDeltas(anyList()))
+                .thenAnswer(invocation -> Mono.just((long) ((List<?>) invocation.getArgument(0)).size()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRoundsForTheSamePlayerCoalesceIntoOneRow() {
+        settlementWriter.settle(finishedGame(player("1", 10), player("2", -10)));
+        settlementWriter.settle(finishedGame(player("1", 15), player("2", 0)));
+        settlementWriter.settle(finishedGame(player("1", -5)));
+
+        settlementWriter.flush().block();
+
+        ArgumentCaptor<List<ScoreDelta>> batch = ArgumentCaptor.forClass(List.class);
+        verify(playerRepository, times(1)).applyScoreDeltas(batch.capture());
+        Map<String, ScoreDelta> deltas = batch.getValue().stream()
+                .collect(Collectors.toMap(ScoreDelta::getPlayerId, delta -> delta));
+        assertEquals(2, deltas.size());
+        assertEquals(20, deltas.get("1").getScore());
+        assertEquals(2, deltas.get("1").getWins());
+        assertEquals(1, deltas.get("1").getLosses());
+        assertEquals(-10, deltas.get("2").getScore());
+        assertEquals(0, deltas.get("2").getWins());
+        assertEquals(1, deltas.get("2").getLosses());
+        assertEquals(0, settlementWriter.pendingPlayers());
+    }
+
+    @Test
+    public void testLargeSettlementsAreSplitIntoBatches() {
+        properties.getSettlement().setBatchSize(2);
+        settlementWriter.settle(finishedGame(player("1", 10), player("2", 10), player("3", 10), player("4", 10), player("5", 10)));
+
+        settlementWriter.flush().block();
+
+        verify(playerRepository, times(3)).applyScoreDeltas(anyList());
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedOnNextFlush() {
+        when(playerRepository.applyScoreDeltas(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("connection lost")))
+                .thenReturn(Mono.just(1L));
+        settlementWriter.settle(finishedGame(player("1", 10)));
+
+        settlementWriter.flush().block();
+        assertEquals(1, settlementWriter.pendingPlayers());
+
+        settlementWriter.flush().block();
+        assertEquals(0, settlementWriter.pendingPlayers());
+        verify(playerRepository, times(2)).applyScoreDeltas(anyList());
+    }
+
+    @Test
+    public void testLeaderboardFollowsWrittenScores() {
+        Player player = new Player("Player1", 100);
+        player.setId("1");
+        leaderboard.loadAll(List.of(player));
+        settlementWriter.settle(finishedGame(player("1", 15)));
+
+        settlementWriter.flush().block();
+
+        assertEquals(115, leaderboard.rank("1").orElseThrow().getScore());
+    }
+
+    private static PlayerState player(String playerId, int payout) {
+        PlayerState playerState = new PlayerState(playerId);
+        playerState.setPayout(payout);
+        return playerState;
+    }
+
+    private static Game finishedGame(PlayerState... playerStates) {
+        Game game = new Game();
+        game.setPlayersState(new ArrayList<>(List.of(playerStates)));
+        return game;
+    }
+}
@@ -0,0 +1,122 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.simulation;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.BlackjackProperties;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationRequest;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.SimulationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRunnerTest {
+
+    private SimulationRunner simulationRunner;
+
+    @BeforeEach
+    public void setUp() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getSimulation().setParallelism(4);
+        properties.getSimulation().setMaxHands(10_000_000);
+        simulationRunner = new SimulationRunner(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        simulationRunner.shutdown();
+    }
+
+    @Test
+    public void testSameSeedPlaysTheSameHands() {
+        SimulationResult first = simulate(100_000, PlayStrategy.BASIC, 42L);
+        SimulationResult second = simulate(100_000, PlayStrategy.BASIC, 42L);
+
+        assertEquals(100_000, first.getHands());
+        assertEquals(first.getExpectedValue(), second.getExpectedValue());
+        assertEquals(first.getVariance(), second.getVariance());
+        assertEquals(first.getPlayerBustRate(), second.getPlayerBustRate());
+        assertEquals(first.getDoubleRate(), second.getDoubleRate());
+    }
+
+    @Test
+    public void testBasicStrategyKeepsTheHouseEdgeSmall() {
+        SimulationResult result = simulate(1_000_000, PlayStrategy.BASIC, 7L);
+
+        // A six-deck S17 game without splits gives the house around one percent
+        assertTrue(result.getExpectedValue() > -0.03 && result.getExpectedValue() < 0.01,
+                "EV " + result.getExpectedValue());
+        assertEquals(1.0, result.getWinRate() + result.getPushRate() + result.getLossRate(), 1e-9);
+        assertTrue(result.getBlackjackRate() > 0.04 && result.getBlackjackRate() < 0.05);
+        assertTrue(result.getDoubleRate() > 0 && result.getSurrenderRate() > 0);
+        assertTrue(result.getVariance() > 1.0 && result.getVariance() < 1.6);
+    }
+
+    @Test
+    public void testBasicStrategyBeatsMimickingTheDealer() {
+        SimulationResult basic = simulate(500_000, PlayStrategy.BASIC, 11L);
+        SimulationResult mimic = simulate(500_000, PlayStrategy.MIMIC_DEALER, 11L);
+        SimulationResult neverBust = simulate(500_000, PlayStrategy.NEVER_BUST, 11L);
+
+        assertTrue(basic.getExpectedValue() > mimic.getExpectedValue());
+        assertTrue(basic.getExpectedValue() > neverBust.getExpectedValue());
+        assertEquals(0.0, neverBust.getPlayerBustRate());
+        assertEquals(0.0, mimic.getDoubleRate());
+    }
+
+    @Test
+    public void testRejectsRunsOutsideTheLimits() {
+        StepVerifier.create(simulationRunner.run(new SimulationRequest(0, PlayStrategy.BASIC)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(simulationRunner.run(new SimulationRequest(10_000_001, PlayStrategy.BASIC)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        SimulationRequest request = new SimulationRequest(1_000, PlayStrategy.BASIC);
+        request.setPenetration(1.5);
+        StepVerifier.create(simulationRunner.run(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    public void testCancelledRunsStopAndGiveBackTheirPlace() {
+        BlackjackProperties properties = new BlackjackProperties();
+        properties.getSimulation().setParallelism(2);
+        properties.getSimulation().setMaxRuns(1);
+        properties.getSimulation().setMaxHands(10_000_000_000L);
+        SimulationRunner runner = new SimulationRunner(properties);
+        try {
+            // Far more hands than the test waits for, so only cancelling can end it in time
+            Disposable longRun = runner.run(new SimulationRequest(10_000_000_000L, PlayStrategy.BASIC)).subscribe();
+
+            StepVerifier.create(runner.run(new SimulationRequest(1_000, PlayStrategy.BASIC)))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+
+            longRun.dispose();
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            SimulationResult result = null;
+            while (result == null && System.nanoTime() < deadline) {
+                result = runner.run(new SimulationRequest(1_000, PlayStrategy.BASIC))
+                        .onErrorResume(IllegalStateException.class, error -> Mono.delay(Duration.ofMillis(10)).then(Mono.empty()))
+                        .block();
+            }
+            assertNotNull(result);
+            assertEquals(1_000, result.getHands());
+        } finally {
+            runner.shutdown();
+        }
+    }
+
+    private SimulationResult simulate(long hands, PlayStrategy strategy, Long seed) {
+        SimulationRequest request = new SimulationRequest(hands, strategy);
+        request.setSeed(seed);
+        return simulationRunner.run(request).block();
+    }
+}
@@ -0,0 +1,72 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.utils;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Card;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardUtilsTest {
+
+    @Test
+    public void testCalculateHandValue() {
+        assertEquals(21, CardUtils.calculateHandValue(CardList.of("AH", "KD")));
+        assertEquals(12, CardUtils.calculateHandValue(CardList.of("AH", "AD")));
+        assertEquals(21, CardUtils.calculateHandValue(CardList.of("AH", "AD", "9C")));
+        assertEquals(22, CardUtils.calculateHandValue(CardList.of("10H", "5D", "7C")));
+    }
+
+    @Test
+    public void testIncrementalScoreMatchesFullScan() {
+        CardList deck = CardUtils.createShuffledDeck(1);
+        PlayerState playerState = new PlayerState("1");
+
+        for (Card card : deck) {
+            if (playerState.isBust()) {
+                playerState = new PlayerState("1");
+            }
+            playerState.addCard(card);
+            assertEquals(CardUtils.calculateHandValue(playerState.getPlayerHand()), playerState.getScore());
+        }
+    }
+
+    @Test
+    public void testShuffleOnlyDependsOnTheSeed() {
+        CardList deck = CardUtils.createShuffledDeck(2, 1234L);
+
+        assertEquals(deck, CardUtils.createShuffledDeck(2, 1234L));
+        assertNotEquals(deck, CardUtils.createShuffledDeck(2, 1235L));
+
+        int[] counts = new int[Card.RANKS * Card.SUITS];
+        deck.forEach(card -> counts[card.getCode()]++);
+        for (int count : counts) {
+            assertEquals(2, count, "Every card should appear once per deck");
+        }
+
+        CardList withoutTable = CardUtils.createShuffledDeck(2, 1234L, CardList.of("AS", "AS", "KD"));
+        assertEquals(101, withoutTable.size());
+        assertFalse(withoutTable.contains(Card.parse("AS")));
+    }
+
+    @Test
+    public void testHandFlags() {
+        PlayerState playerState = new PlayerState("1");
+        playerState.addCard(Card.parse("AS"));
+        playerState.addCard(Card.parse("QH"));
+
+        assertTrue(playerState.isBlackjack());
+        assertTrue(playerState.isSoft());
+
+        playerState.addCard(Card.parse("5C"));
+
+        assertFalse(playerState.isBlackjack());
+        assertFalse(playerState.isSoft());
+        assertEquals(16, playerState.getScore());
+
+        playerState.addCard(Card.parse("9D"));
+
+        assertTrue(playerState.isBust());
+        assertEquals(25, playerState.getScore());
+    }
+}
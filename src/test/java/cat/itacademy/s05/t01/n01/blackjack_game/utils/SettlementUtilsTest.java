@@ -0,0 +1,61 @@
+package cat.itacademy.s05.t01.n01.blackjack_game.utils;
+
+import cat.itacademy.s05.t01.n01.blackjack_game.model.CardList;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.Game;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerAction;
+import cat.itacademy.s05.t01.n01.blackjack_game.model.PlayerState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SettlementUtilsTest {
+
+    @Test
+    public void testWinsLossesAndPushesPayTheBet() {
+        assertEquals(10, payout(hand(PlayerAction.STANDING, 10, "10H", "9D"), dealer("10C", "7S")));
+        assertEquals(-10, payout(hand(PlayerAction.STANDING, 10, "10H", "6D"), dealer("10C", "7S")));
+        assertEquals(0, payout(hand(PlayerAction.STANDING, 10, "10H", "7D"), dealer("10C", "7S")));
+        assertEquals(10, payout(hand(PlayerAction.STANDING, 10, "10H", "2D"), dealer("10C", "6S", "9H")));
+    }
+
+    @Test
+    public void testDoubledBetIsPaidInFull() {
+        assertEquals(20, payout(hand(PlayerAction.DOUBLED_DOWN, 20, "5H", "6D", "10S"), dealer("10C", "7S")));
+        assertEquals(-20, payout(hand(PlayerAction.BUSTED, 20, "10H", "6D", "9S"), dealer("10C", "7S")));
+    }
+
+    @Test
+    public void testBustLosesEvenWhenDealerBusts() {
+        assertEquals(-10, payout(hand(PlayerAction.BUSTED, 10, "10H", "6D", "9S"), dealer("10C", "6S", "9H")));
+    }
+
+    @Test
+    public void testSurrenderLosesHalfTheBet() {
+        assertEquals(-5, payout(hand(PlayerAction.SURRENDERED, 10, "10H", "6D"), dealer("10C", "7S")));
+    }
+
+    @Test
+    public void testNaturalBlackjackPaysThreeToTwo() {
+        assertEquals(15, payout(hand(PlayerAction.STANDING, 10, "AH", "KD"), dealer("10C", "7S")));
+        assertEquals(0, payout(hand(PlayerAction.STANDING, 10, "AH", "KD"), dealer("AC", "QS")));
+        assertEquals(-10, payout(hand(PlayerAction.STANDING, 10, "7H", "4D", "KS"), dealer("AC", "QS")));
+    }
+
+    private static int payout(PlayerState playerState, Game game) {
+        return SettlementUtils.payout(playerState, game);
+    }
+
+    private static PlayerState hand(PlayerAction action, int bet, String... cards) {
+        PlayerState playerState = new PlayerState("1");
+        playerState.setHand(CardList.of(cards));
+        playerState.setAction(action);
+        playerState.setBet(bet);
+        return playerState;
+    }
+
+    private static Game dealer(String... cards) {
+        Game game = new Game();
+        game.setDealerHand(CardList.of(cards));
+        return game;
+    }
+}